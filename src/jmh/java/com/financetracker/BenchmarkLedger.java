@@ -0,0 +1,80 @@
+package com.financetracker;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+
+// A throwaway SQLite ledger seeded with synthetic rows for the benchmarks
+final class BenchmarkLedger {
+    private static final String[] CATEGORIES = {
+            "Groceries", "Rent", "Utilities", "Transport", "Dining", "Health", "Travel", "Salary"
+    };
+    private static final LocalDate START = LocalDate.of(2000, 1, 1);
+
+    final Path directory;
+    final TransactionManager transactionManager;
+
+    private BenchmarkLedger(Path directory, TransactionManager transactionManager) {
+        this.directory = directory;
+        this.transactionManager = transactionManager;
+    }
+
+    static BenchmarkLedger create(int rows) throws IOException {
+        Path directory = Files.createTempDirectory("finance-bench");
+        TransactionManager transactionManager =
+                new TransactionManager(directory.resolve("finance_tracker.sqlite").toString());
+        transactionManager.addTransactions(rows(rows, 42));
+        return new BenchmarkLedger(directory, transactionManager);
+    }
+
+    // Deterministic synthetic rows spread over roughly 25 years
+    static Iterator<Transaction> rows(int count, long seed) {
+        Random random = new Random(seed);
+        return new Iterator<>() {
+            private int produced;
+
+            @Override
+            public boolean hasNext() {
+                return produced < count;
+            }
+
+            @Override
+            public Transaction next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                produced++;
+                return randomTransaction(random);
+            }
+        };
+    }
+
+    static Transaction randomTransaction(Random random) {
+        String category = CATEGORIES[random.nextInt(CATEGORIES.length)];
+        Transaction.TransactionType type = category.equals("Salary")
+                ? Transaction.TransactionType.INCOME
+                : Transaction.TransactionType.EXPENSE;
+        return new Transaction(
+                START.plusDays(random.nextInt(9000)),
+                category + " payment",
+                BigDecimal.valueOf(random.nextInt(500_000), 2),
+                category,
+                type
+        );
+    }
+
+    void close() throws IOException {
+        transactionManager.close();
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+}
@@ -0,0 +1,146 @@
+package com.financetracker;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// The dashboard figures computed several ways: the original in-memory stream pipelines
+// over a loaded ledger, the SQL aggregate queries, scans over the primitive columns of
+// ColumnarTransactionStore, and the fused single-pass AnalyticsEngine, both summing amounts
+// as stored and converting every row to another currency by its day's rate. The dashboard
+// reads the rollups in the home currency and uses the engine only for another currency.
+// Methods that go through TransactionManager clear its query cache before each call, so
+// they time the queries; the *Cached variants time a cache hit.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DashboardAggregationBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkLedger ledger;
+    private List<Transaction> loaded;
+    private ColumnarTransactionStore columns;
+    private final AnalyticsEngine engine = new AnalyticsEngine();
+
+    // Clears the query cache before each call, outside the timing, so the read is timed
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear(DashboardAggregationBenchmark benchmark) {
+            benchmark.ledger.transactionManager.clearQueryCache();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ledger = BenchmarkLedger.create(rows);
+        loaded = ledger.transactionManager.getAllTransactions();
+        columns = ledger.transactionManager.getColumnarStore();
+
+        // A EUR rate for every day the ledger covers, so each row converts at its own rate
+        List<FxRateTable.Rate> rates = new ArrayList<>();
+        for (LocalDate day = LocalDate.of(2000, 1, 1); day.isBefore(LocalDate.of(2025, 1, 1)); day = day.plusDays(1)) {
+            rates.add(new FxRateTable.Rate(day, "EUR", 1.05 + (day.getDayOfYear() % 20) / 100.0));
+        }
+        ledger.transactionManager.importFxRates(rates.iterator());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ledger.close();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> streamCategoryTotals() {
+        return loaded.stream()
+                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
+                .collect(Collectors.groupingBy(
+                        Transaction::getCategory,
+                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
+                ));
+    }
+
+    @Benchmark
+    public Map<Integer, BigDecimal> streamMonthlyExpenses() {
+        return loaded.stream()
+                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
+                .collect(Collectors.groupingBy(
+                        t -> t.getDate().getMonthValue(),
+                        Collectors.reducing(BigDecimal.ZERO, Transaction::getAmount, BigDecimal::add)
+                ));
+    }
+
+    @Benchmark
+    public BigDecimal streamTotalIncome() {
+        return loaded.stream()
+                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
+                .map(Transaction::getAmount)
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> sqlCategoryTotals(ColdCache cold) {
+        return ledger.transactionManager.getCategoryTotals(Transaction.TransactionType.EXPENSE);
+    }
+
+    @Benchmark
+    public Map<Transaction.TransactionType, Map<Integer, BigDecimal>> sqlMonthlyTotals(ColdCache cold) {
+        return ledger.transactionManager.getMonthlyTotals();
+    }
+
+    @Benchmark
+    public Map<String, BigDecimal> columnarCategoryTotals() {
+        return columns.getCategoryTotals(Transaction.TransactionType.EXPENSE);
+    }
+
+    @Benchmark
+    public Map<Transaction.TransactionType, Map<Integer, BigDecimal>> columnarMonthlyTotals() {
+        return columns.getMonthlyTotals();
+    }
+
+    @Benchmark
+    public long columnarTotalIncome() {
+        long[] total = new long[1];
+        columns.scan((id, epochDay, cents, categoryCode, currencyCode, income) -> {
+            if (income) {
+                total[0] += cents;
+            }
+        });
+        return total[0];
+    }
+
+    @Benchmark
+    public DashboardFigures engineDashboardFigures() {
+        return engine.compute(columns, TrendGranularity.MONTH, LocalDate.of(2000, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    @Benchmark
+    public DashboardFigures convertedDashboardFigures() {
+        return engine.compute(columns, TrendGranularity.MONTH, LocalDate.of(2000, 1, 1), LocalDate.of(2024, 12, 31),
+                ledger.transactionManager.getFxRates(), "EUR");
+    }
+
+    @Benchmark
+    public DashboardFigures dashboardFigures(ColdCache cold) {
+        return ledger.transactionManager.getDashboardFigures(
+                TrendGranularity.MONTH, LocalDate.of(2000, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+
+    @Benchmark
+    public DashboardFigures dashboardFiguresCached() {
+        return ledger.transactionManager.getDashboardFigures(
+                TrendGranularity.MONTH, LocalDate.of(2000, 1, 1), LocalDate.of(2024, 12, 31));
+    }
+}
@@ -0,0 +1,57 @@
+package com.financetracker;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Ingest throughput of the TransactionStore backends: one run loads the given number of
+// synthetic rows into an empty store and closes it, so the time includes making it durable
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StorageIngestBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    @Param({"sqlite", "journal"})
+    public String backend;
+
+    private Path directory;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("finance-ingest");
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        try (var files = Files.list(directory)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public int ingest() {
+        try (TransactionStore store = open()) {
+            return store.addAll(BenchmarkLedger.rows(rows, 42));
+        }
+    }
+
+    private TransactionStore open() {
+        return switch (backend) {
+            case "sqlite" -> new SqliteTransactionStore(directory.resolve("finance_tracker.sqlite").toString());
+            case "journal" -> new JournalTransactionStore(directory.resolve("finance_tracker.journal"));
+            default -> throw new IllegalArgumentException("Unknown backend: " + backend);
+        };
+    }
+}
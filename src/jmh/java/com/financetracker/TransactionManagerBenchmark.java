@@ -0,0 +1,88 @@
+package com.financetracker;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+// Hot paths of TransactionManager against ledgers of increasing size. Reads are timed
+// with the query cache cleared before each call, and again warm where the cache serves them.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TransactionManagerBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    public int rows;
+
+    private BenchmarkLedger ledger;
+    private Random random;
+
+    // A row added before each removeTransaction call, outside the timing, so every call
+    // removes a row that exists and the ledger keeps its size
+    @State(Scope.Thread)
+    public static class RowToRemove {
+        int id;
+
+        @Setup(Level.Invocation)
+        public void add(TransactionManagerBenchmark benchmark) {
+            id = benchmark.ledger.transactionManager.addTransaction(BenchmarkLedger.randomTransaction(benchmark.random));
+        }
+    }
+
+    // Clears the query cache before each call, outside the timing, so the read is timed
+    @State(Scope.Thread)
+    public static class ColdCache {
+        @Setup(Level.Invocation)
+        public void clear(TransactionManagerBenchmark benchmark) {
+            benchmark.ledger.transactionManager.clearQueryCache();
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        ledger = BenchmarkLedger.create(rows);
+        random = new Random(7);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        ledger.close();
+    }
+
+    @Benchmark
+    public void addTransaction() {
+        ledger.transactionManager.addTransaction(BenchmarkLedger.randomTransaction(random));
+    }
+
+    @Benchmark
+    public boolean removeTransaction(RowToRemove row) {
+        return ledger.transactionManager.removeTransaction(row.id);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public List<Transaction> getAllTransactions(ColdCache cold) {
+        return ledger.transactionManager.getAllTransactions();
+    }
+
+    @Benchmark
+    public List<Transaction> getAllTransactionsCached() {
+        return ledger.transactionManager.getAllTransactions();
+    }
+
+    @Benchmark
+    public FinancialSummary getFinancialSummary(ColdCache cold) {
+        return ledger.transactionManager.getFinancialSummary();
+    }
+
+    @Benchmark
+    public List<Transaction> getFirstPage() {
+        return ledger.transactionManager.getTransactionsPage(null, PagedTransactionList.PAGE_SIZE);
+    }
+}
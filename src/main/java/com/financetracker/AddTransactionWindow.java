@@ -1,14 +1,47 @@
 package com.financetracker;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
+import javafx.geometry.Side;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.GridPane;
 import javafx.stage.Stage;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
 
 public class AddTransactionWindow {
+    private static final int SUGGESTION_LIMIT = 8;
+
+    // Choices for the Repeat box: how often, and its unit and interval
+    private enum Repeat {
+        NEVER("Never", null, 0),
+        WEEKLY("Every week", RecurringRule.Unit.WEEK, 1),
+        FORTNIGHTLY("Every two weeks", RecurringRule.Unit.WEEK, 2),
+        MONTHLY("Every month", RecurringRule.Unit.MONTH, 1),
+        QUARTERLY("Every three months", RecurringRule.Unit.MONTH, 3),
+        YEARLY("Every year", RecurringRule.Unit.YEAR, 1);
+
+        private final String label;
+        private final RecurringRule.Unit unit;
+        private final int interval;
+
+        Repeat(String label, RecurringRule.Unit unit, int interval) {
+            this.label = label;
+            this.unit = unit;
+            this.interval = interval;
+        }
+
+        @Override
+        public String toString() {
+            return label;
+        }
+    }
+
     private TransactionManager transactionManager;
 
     // Make fields class members so they can be accessed by prefill method
@@ -16,7 +49,11 @@ public class AddTransactionWindow {
     private TextField amountField;
     private ComboBox<Transaction.TransactionType> typeComboBox;
     private TextField categoryField;
+    private ComboBox<String> accountComboBox;
+    private TextField currencyField;
     private DatePicker datePicker;
+    private ComboBox<Repeat> repeatComboBox;
+    private DatePicker untilPicker;
 
     public AddTransactionWindow(Stage stage, TransactionManager transactionManager) {
         this.transactionManager = transactionManager;
@@ -41,9 +78,40 @@ public class AddTransactionWindow {
         categoryField = new TextField();
         categoryField.getStyleClass().add("text-field");
 
+        // Existing accounts to pick from; typing a new name adds it
+        accountComboBox = new ComboBox<>();
+        accountComboBox.setEditable(true);
+        accountComboBox.getItems().addAll(transactionManager.getAccounts());
+        accountComboBox.getItems().sort(String.CASE_INSENSITIVE_ORDER);
+        accountComboBox.setValue(Transaction.DEFAULT_ACCOUNT);
+        accountComboBox.getStyleClass().add("combo-box");
+
+        currencyField = new TextField(Transaction.HOME_CURRENCY);
+        currencyField.setPrefColumnCount(4);
+        currencyField.getStyleClass().add("text-field");
+
         datePicker = new DatePicker(LocalDate.now());
         datePicker.getStyleClass().add("date-picker");
 
+        repeatComboBox = new ComboBox<>();
+        repeatComboBox.getItems().addAll(Repeat.values());
+        repeatComboBox.setValue(Repeat.NEVER);
+        repeatComboBox.getStyleClass().add("combo-box");
+
+        // Optional last day of a repeating transaction; only used when it repeats
+        untilPicker = new DatePicker();
+        untilPicker.setPromptText("No end");
+        untilPicker.getStyleClass().add("date-picker");
+        untilPicker.disableProperty().bind(repeatComboBox.valueProperty().isEqualTo(Repeat.NEVER));
+
+        // Completions come from in-memory tries; descriptions are loaded once in the background
+        attachAutocomplete(categoryField, prefix -> transactionManager.suggestCategories(prefix, SUGGESTION_LIMIT));
+        attachAutocomplete(descriptionField, prefix -> transactionManager.suggestDescriptions(prefix, SUGGESTION_LIMIT));
+        transactionManager.loadDescriptionSuggestionsAsync().exceptionally(error -> {
+            error.printStackTrace();
+            return null;
+        });
+
         Button submitButton = new Button("Add Transaction");
         submitButton.getStyleClass().add("submit-button");
 
@@ -68,12 +136,32 @@ public class AddTransactionWindow {
         grid.add(categoryLabel, 0, 3);
         grid.add(categoryField, 1, 3);
 
+        Label accountLabel = new Label("Account:");
+        accountLabel.getStyleClass().add("form-label");
+        grid.add(accountLabel, 0, 4);
+        grid.add(accountComboBox, 1, 4);
+
+        Label currencyLabel = new Label("Currency:");
+        currencyLabel.getStyleClass().add("form-label");
+        grid.add(currencyLabel, 0, 5);
+        grid.add(currencyField, 1, 5);
+
         Label dateLabel = new Label("Date:");
         dateLabel.getStyleClass().add("form-label");
-        grid.add(dateLabel, 0, 4);
-        grid.add(datePicker, 1, 4);
+        grid.add(dateLabel, 0, 6);
+        grid.add(datePicker, 1, 6);
 
-        grid.add(submitButton, 1, 5);
+        Label repeatLabel = new Label("Repeat:");
+        repeatLabel.getStyleClass().add("form-label");
+        grid.add(repeatLabel, 0, 7);
+        grid.add(repeatComboBox, 1, 7);
+
+        Label untilLabel = new Label("Until:");
+        untilLabel.getStyleClass().add("form-label");
+        grid.add(untilLabel, 0, 8);
+        grid.add(untilPicker, 1, 8);
+
+        grid.add(submitButton, 1, 9);
 
         // Handle submit button click
         submitButton.setOnAction(e -> {
@@ -83,29 +171,56 @@ public class AddTransactionWindow {
                 BigDecimal amount = new BigDecimal(amountField.getText());
                 String category = categoryField.getText();
                 Transaction.TransactionType type = typeComboBox.getValue();
+                String account = accountComboBox.getValue();
+                String currency = Transaction.normalizeCurrency(currencyField.getText());
 
-                if (description.isEmpty() || category.isEmpty() || type == null) {
+                if (description.isEmpty() || category.isEmpty() || type == null || account == null || account.isBlank()) {
                     throw new IllegalArgumentException("Please fill in all fields");
                 }
 
-                Transaction transaction = new Transaction(
-                        date,
-                        description,
-                        amount,
-                        category,
-                        type
-                );
+                // A repeating transaction is stored once as a rule starting on the chosen date
+                Repeat repeat = repeatComboBox.getValue();
+                CompletableFuture<?> added;
+                if (repeat == Repeat.NEVER) {
+                    added = transactionManager.addTransactionAsync(new Transaction(
+                            date,
+                            description,
+                            amount,
+                            category,
+                            type,
+                            account,
+                            currency
+                    ));
+                } else if (!currency.equals(Transaction.HOME_CURRENCY)) {
+                    throw new IllegalArgumentException("Repeating transactions are in " + Transaction.HOME_CURRENCY);
+                } else {
+                    added = transactionManager.addRecurringRuleAsync(new RecurringRule(
+                            description, amount, category, type, repeat.unit, repeat.interval, date, untilPicker.getValue()));
+                }
 
-                transactionManager.addTransaction(transaction);
+                submitButton.setDisable(true);
+                added.whenComplete((result, error) -> Platform.runLater(() -> {
+                    submitButton.setDisable(false);
+                    if (error != null) {
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        Alert alert = new Alert(Alert.AlertType.ERROR);
+                        alert.setTitle("Error");
+                        alert.setContentText("Error adding transaction: " + cause.getMessage());
+                        alert.showAndWait();
+                        return;
+                    }
 
-                // Show success message
-                Alert alert = new Alert(Alert.AlertType.INFORMATION);
-                alert.setTitle("Success");
-                alert.setContentText("Transaction added successfully!");
-                alert.showAndWait();
+                    // Show success message
+                    Alert alert = new Alert(Alert.AlertType.INFORMATION);
+                    alert.setTitle("Success");
+                    alert.setContentText(repeat == Repeat.NEVER
+                            ? "Transaction added successfully!"
+                            : "Recurring transaction added: " + repeat.toString().toLowerCase() + " from " + date + "!");
+                    alert.showAndWait();
 
-                // Close the window
-                stage.close();
+                    // Close the window
+                    stage.close();
+                }));
             } catch (NumberFormatException ex) {
                 Alert alert = new Alert(Alert.AlertType.ERROR);
                 alert.setTitle("Error");
@@ -131,6 +246,46 @@ public class AddTransactionWindow {
         stage.show();
     }
 
+    // Shows a drop-down of completions under the field while the user types
+    private static void attachAutocomplete(TextField field, Function<String, List<String>> suggestions) {
+        ContextMenu menu = new ContextMenu();
+        boolean[] choosing = new boolean[1];
+
+        field.textProperty().addListener((observable, oldText, newText) -> {
+            if (choosing[0] || !field.isFocused() || newText == null || newText.isBlank()) {
+                menu.hide();
+                return;
+            }
+            List<String> matches = suggestions.apply(newText);
+            if (matches.isEmpty() || (matches.size() == 1 && matches.get(0).equalsIgnoreCase(newText.trim()))) {
+                menu.hide();
+                return;
+            }
+
+            List<MenuItem> items = new ArrayList<>(matches.size());
+            for (String match : matches) {
+                MenuItem item = new MenuItem(match);
+                item.setMnemonicParsing(false);
+                item.setOnAction(event -> {
+                    choosing[0] = true;
+                    field.setText(match);
+                    field.positionCaret(match.length());
+                    choosing[0] = false;
+                });
+                items.add(item);
+            }
+            menu.getItems().setAll(items);
+            if (!menu.isShowing()) {
+                menu.show(field, Side.BOTTOM, 0, 0);
+            }
+        });
+        field.focusedProperty().addListener((observable, wasFocused, isFocused) -> {
+            if (!isFocused) {
+                menu.hide();
+            }
+        });
+    }
+
     // Add method to prefill form with existing transaction data
     public void prefillFromTransaction(Transaction transaction) {
         if (transaction != null) {
@@ -139,6 +294,8 @@ public class AddTransactionWindow {
             amountField.setText(transaction.getAmount().toString());
             categoryField.setText(transaction.getCategory());
             typeComboBox.setValue(transaction.getType());
+            accountComboBox.setValue(transaction.getAccount());
+            currencyField.setText(transaction.getCurrency());
         }
     }
 }
\ No newline at end of file
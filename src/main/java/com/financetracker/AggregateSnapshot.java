@@ -0,0 +1,160 @@
+package com.financetracker;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// The aggregates the first screens need, saved to a small binary file on shutdown so the
+// next start can show them without scanning the ledger. Tagged with the database's id and
+// data version (see SchemaMigrator migration 7); a snapshot is only used while both
+// still match, and any write to the ledger makes it stale.
+//
+// Format: magic, format version, database id, data version, income and expense cents,
+// row count, category totals per type as (name, cents) pairs, then twelve month totals
+// per type with a bitmask of the months that have rows. A CRC32 of all of it comes last.
+public class AggregateSnapshot {
+    private static final int MAGIC = 0x46545331; // "FTS1"
+    private static final int FORMAT_VERSION = 1;
+
+    private final long databaseId;
+    private final long dataVersion;
+    private final long incomeCents;
+    private final long expenseCents;
+    private final int transactionCount;
+    private final Map<Transaction.TransactionType, Map<String, BigDecimal>> categoryTotals;
+    private final Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthlyTotals;
+
+    public AggregateSnapshot(long databaseId, long dataVersion, long incomeCents, long expenseCents,
+                             int transactionCount,
+                             Map<Transaction.TransactionType, Map<String, BigDecimal>> categoryTotals,
+                             Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthlyTotals) {
+        this.databaseId = databaseId;
+        this.dataVersion = dataVersion;
+        this.incomeCents = incomeCents;
+        this.expenseCents = expenseCents;
+        this.transactionCount = transactionCount;
+        this.categoryTotals = categoryTotals;
+        this.monthlyTotals = monthlyTotals;
+    }
+
+    public long getDatabaseId() { return databaseId; }
+    public long getDataVersion() { return dataVersion; }
+    public long getIncomeCents() { return incomeCents; }
+    public long getExpenseCents() { return expenseCents; }
+    public int getTransactionCount() { return transactionCount; }
+
+    public FinancialSummary getSummary() {
+        return new FinancialSummary(Money.fromCents(incomeCents), Money.fromCents(expenseCents));
+    }
+
+    // Largest first, as TransactionManager.getCategoryTotals returns them
+    public Map<String, BigDecimal> getCategoryTotals(Transaction.TransactionType type) {
+        return categoryTotals.get(type);
+    }
+
+    public Map<Transaction.TransactionType, Map<Integer, BigDecimal>> getMonthlyTotals() {
+        return monthlyTotals;
+    }
+
+    // Writes to a temporary file first and moves it into place, so a crash never leaves half a snapshot
+    public void write(Path file) throws IOException {
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        CRC32 crc = new CRC32();
+        try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                new BufferedOutputStream(Files.newOutputStream(temporary)), crc))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(databaseId);
+            out.writeLong(dataVersion);
+            out.writeLong(incomeCents);
+            out.writeLong(expenseCents);
+            out.writeInt(transactionCount);
+            for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+                Map<String, BigDecimal> totals = categoryTotals.get(type);
+                out.writeInt(totals.size());
+                for (Map.Entry<String, BigDecimal> entry : totals.entrySet()) {
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(Money.toCents(entry.getValue()));
+                }
+            }
+            for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+                Map<Integer, BigDecimal> months = monthlyTotals.get(type);
+                int present = 0;
+                for (int month = 1; month <= 12; month++) {
+                    BigDecimal total = months.get(month);
+                    if (total != null) {
+                        present |= 1 << (month - 1);
+                    }
+                }
+                out.writeShort(present);
+                for (int month = 1; month <= 12; month++) {
+                    BigDecimal total = months.get(month);
+                    out.writeLong(total == null ? 0 : Money.toCents(total));
+                }
+            }
+            out.writeInt((int) crc.getValue());
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Throws if the file is missing, from another format version or damaged
+    public static AggregateSnapshot read(Path file) throws IOException {
+        CRC32 crc = new CRC32();
+        try (DataInputStream in = new DataInputStream(new CheckedInputStream(
+                new BufferedInputStream(Files.newInputStream(file)), crc))) {
+            if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+                throw new IOException(file + " is not a snapshot this version can read");
+            }
+            long databaseId = in.readLong();
+            long dataVersion = in.readLong();
+            long incomeCents = in.readLong();
+            long expenseCents = in.readLong();
+            int transactionCount = in.readInt();
+
+            Map<Transaction.TransactionType, Map<String, BigDecimal>> categoryTotals =
+                    new EnumMap<>(Transaction.TransactionType.class);
+            for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+                int size = in.readInt();
+                Map<String, BigDecimal> totals = new LinkedHashMap<>();
+                for (int i = 0; i < size; i++) {
+                    totals.put(in.readUTF(), Money.fromCents(in.readLong()));
+                }
+                categoryTotals.put(type, totals);
+            }
+
+            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthlyTotals =
+                    new EnumMap<>(Transaction.TransactionType.class);
+            for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+                int present = in.readShort();
+                Map<Integer, BigDecimal> months = new TreeMap<>();
+                for (int month = 1; month <= 12; month++) {
+                    long total = in.readLong();
+                    if ((present & (1 << (month - 1))) != 0) {
+                        months.put(month, Money.fromCents(total));
+                    }
+                }
+                monthlyTotals.put(type, months);
+            }
+
+            int expected = (int) crc.getValue();
+            if (in.readInt() != expected) {
+                throw new IOException(file + " is damaged");
+            }
+            return new AggregateSnapshot(databaseId, dataVersion, incomeCents, expenseCents,
+                    transactionCount, categoryTotals, monthlyTotals);
+        }
+    }
+}
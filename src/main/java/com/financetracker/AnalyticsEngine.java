@@ -0,0 +1,237 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+// Computes every dashboard figure in one scan over the column store: each row is read
+// once and feeds the type totals, the expense category totals, the month-of-year totals
+// and the trend buckets together, all in long cents. Large stores are split into slot
+// ranges scanned in parallel with fork/join; each task fills its own accumulator and the
+// partial results are merged on the way back up, so the workers share nothing.
+// Amounts in other currencies are converted row by row on the way in, which costs an
+// array lookup and a multiply per row, and nothing for rows already in the target.
+public class AnalyticsEngine {
+    // Ranges up to this many slots are scanned on the current thread
+    static final int SEQUENTIAL_THRESHOLD = 1 << 16;
+
+    private static final int INCOME = 0;
+    private static final int EXPENSE = 1;
+
+    private final ForkJoinPool pool;
+
+    public AnalyticsEngine() {
+        this(ForkJoinPool.commonPool());
+    }
+
+    public AnalyticsEngine(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    // Trend buckets run from the one holding from to the one holding to, at the given
+    // granularity. Amounts are summed as stored, whatever their currency.
+    public DashboardFigures compute(ColumnarTransactionStore store, TrendGranularity granularity,
+                                    LocalDate from, LocalDate to) {
+        return compute(store, granularity, from, to, null, null);
+    }
+
+    // The same, with every amount converted to the currency at the rate of its day
+    public DashboardFigures compute(ColumnarTransactionStore store, TrendGranularity granularity,
+                                    LocalDate from, LocalDate to, FxRateTable rates, String currency) {
+        LocalDate start = granularity.bucketStart(from);
+        int firstBucket = bucketOf(granularity, (int) start.toEpochDay());
+        int bucketCount = Math.max(0, bucketOf(granularity, (int) to.toEpochDay()) - firstBucket + 1);
+
+        // The read lock keeps slots, category and currency codes still while the workers scan
+        return store.locked(() -> {
+            FxRateTable.Converter converter = rates == null ? null : rates.converter(currency, store.currencyNames());
+            Layout layout = new Layout(granularity, firstBucket, bucketCount, store.categoryCount(),
+                    converter == null || converter.isIdentity() ? null : converter);
+            int rows = store.rowCount();
+            Accumulator result = rows <= SEQUENTIAL_THRESHOLD
+                    ? scan(store, layout, 0, rows)
+                    : pool.invoke(new ScanTask(store, layout, 0, rows));
+            return result.toFigures(store, start, to);
+        });
+    }
+
+    private static Accumulator scan(ColumnarTransactionStore store, Layout layout, int from, int to) {
+        Accumulator accumulator = new Accumulator(layout);
+        store.scanUnlocked(from, to, accumulator);
+        return accumulator;
+    }
+
+    private static int bucketOf(TrendGranularity granularity, int epochDay) {
+        return switch (granularity) {
+            case DAY -> epochDay;
+            case MONTH -> ColumnarTransactionStore.yearMonthOf(epochDay);
+            case YEAR -> Math.floorDiv(ColumnarTransactionStore.yearMonthOf(epochDay), 12);
+        };
+    }
+
+    private static LocalDate bucketStart(TrendGranularity granularity, int bucket) {
+        return switch (granularity) {
+            case DAY -> LocalDate.ofEpochDay(bucket);
+            case MONTH -> LocalDate.of(Math.floorDiv(bucket, 12), Math.floorMod(bucket, 12) + 1, 1);
+            case YEAR -> LocalDate.of(bucket, 1, 1);
+        };
+    }
+
+    // What every accumulator in one computation is sized, bucketed and converted by;
+    // converter is null when no row needs converting
+    private record Layout(TrendGranularity granularity, int firstBucket, int bucketCount, int categoryCount,
+                          FxRateTable.Converter converter) {
+    }
+
+    private static final class Accumulator implements ColumnarTransactionStore.RowVisitor {
+        private final Layout layout;
+        private final FxRateTable.Converter converter;
+        private final long[] typeTotals = new long[2];
+        private final long[] categoryTotals;
+        private final int[] categoryRows;
+        private final long[][] monthTotals = new long[2][12];
+        private final int[][] monthRows = new int[2][12];
+        private final long[][] bucketTotals;
+        private final int[] bucketRows;
+
+        Accumulator(Layout layout) {
+            this.layout = layout;
+            this.converter = layout.converter();
+            this.categoryTotals = new long[layout.categoryCount()];
+            this.categoryRows = new int[layout.categoryCount()];
+            this.bucketTotals = new long[2][layout.bucketCount()];
+            this.bucketRows = new int[layout.bucketCount()];
+        }
+
+        @Override
+        public void visit(int id, int epochDay, long cents, int categoryCode, int currencyCode, boolean income) {
+            if (converter != null) {
+                cents = converter.convert(cents, currencyCode, epochDay);
+            }
+            int type = income ? INCOME : EXPENSE;
+            typeTotals[type] += cents;
+            if (!income) {
+                categoryTotals[categoryCode] += cents;
+                categoryRows[categoryCode]++;
+            }
+
+            // Month and trend bucket both come from one date calculation
+            int yearMonth = ColumnarTransactionStore.yearMonthOf(epochDay);
+            int month = Math.floorMod(yearMonth, 12);
+            monthTotals[type][month] += cents;
+            monthRows[type][month]++;
+
+            // Whole buckets count, like the rollup tables behind getTrend
+            int bucket = switch (layout.granularity()) {
+                case DAY -> epochDay;
+                case MONTH -> yearMonth;
+                case YEAR -> Math.floorDiv(yearMonth, 12);
+            } - layout.firstBucket();
+            if (bucket >= 0 && bucket < bucketRows.length) {
+                bucketTotals[type][bucket] += cents;
+                bucketRows[bucket]++;
+            }
+        }
+
+        Accumulator merge(Accumulator other) {
+            typeTotals[INCOME] += other.typeTotals[INCOME];
+            typeTotals[EXPENSE] += other.typeTotals[EXPENSE];
+            for (int i = 0; i < categoryTotals.length; i++) {
+                categoryTotals[i] += other.categoryTotals[i];
+                categoryRows[i] += other.categoryRows[i];
+            }
+            for (int type = 0; type < 2; type++) {
+                for (int i = 0; i < 12; i++) {
+                    monthTotals[type][i] += other.monthTotals[type][i];
+                    monthRows[type][i] += other.monthRows[type][i];
+                }
+                for (int i = 0; i < bucketRows.length; i++) {
+                    bucketTotals[type][i] += other.bucketTotals[type][i];
+                }
+            }
+            for (int i = 0; i < bucketRows.length; i++) {
+                bucketRows[i] += other.bucketRows[i];
+            }
+            return this;
+        }
+
+        // Converts to BigDecimal only here, once per figure rather than once per row
+        DashboardFigures toFigures(ColumnarTransactionStore store, LocalDate from, LocalDate to) {
+            FinancialSummary summary = new FinancialSummary(
+                    Money.fromCents(typeTotals[INCOME]), Money.fromCents(typeTotals[EXPENSE]));
+
+            Integer[] order = new Integer[categoryTotals.length];
+            for (int code = 0; code < order.length; code++) {
+                order[code] = code;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(categoryTotals[b], categoryTotals[a]));
+            Map<String, BigDecimal> categories = new LinkedHashMap<>();
+            for (int code : order) {
+                if (categoryRows[code] > 0) {
+                    categories.put(store.categoryName(code), Money.fromCents(categoryTotals[code]));
+                }
+            }
+
+            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthly = new EnumMap<>(Transaction.TransactionType.class);
+            monthly.put(Transaction.TransactionType.INCOME, monthMap(INCOME));
+            monthly.put(Transaction.TransactionType.EXPENSE, monthMap(EXPENSE));
+
+            List<TrendPoint> trend = new ArrayList<>();
+            for (int i = 0; i < bucketRows.length; i++) {
+                if (bucketRows[i] > 0) {
+                    trend.add(new TrendPoint(bucketStart(layout.granularity(), layout.firstBucket() + i),
+                            Money.fromCents(bucketTotals[INCOME][i]), Money.fromCents(bucketTotals[EXPENSE][i])));
+                }
+            }
+
+            return new DashboardFigures(summary, categories, monthly, layout.granularity(), from, to, trend);
+        }
+
+        private Map<Integer, BigDecimal> monthMap(int type) {
+            Map<Integer, BigDecimal> months = new TreeMap<>();
+            for (int i = 0; i < 12; i++) {
+                if (monthRows[type][i] > 0) {
+                    months.put(i + 1, Money.fromCents(monthTotals[type][i]));
+                }
+            }
+            return months;
+        }
+    }
+
+    // Splits a slot range in half until it is small enough to scan directly
+    private static final class ScanTask extends RecursiveTask<Accumulator> {
+        private static final long serialVersionUID = 1L;
+
+        private final ColumnarTransactionStore store;
+        private final Layout layout;
+        private final int from;
+        private final int to;
+
+        ScanTask(ColumnarTransactionStore store, Layout layout, int from, int to) {
+            this.store = store;
+            this.layout = layout;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Accumulator compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                return scan(store, layout, from, to);
+            }
+            int middle = (from + to) >>> 1;
+            ScanTask left = new ScanTask(store, layout, from, middle);
+            left.fork();
+            Accumulator right = new ScanTask(store, layout, middle, to).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.financetracker;
+
+// Called on the thread that made the write, right after it, when a category's spending
+// for the month reaches one of BudgetTracker.THRESHOLDS, or when a budget is set or
+// removed. Hand anything slow to another thread.
+public interface BudgetListener {
+    void onBudgetThresholdCrossed(BudgetStatus status, int thresholdPercent);
+
+    default void onBudgetsChanged() {
+    }
+}
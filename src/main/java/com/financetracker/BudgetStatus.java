@@ -0,0 +1,31 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.YearMonth;
+
+// Where one category's monthly budget stands
+public class BudgetStatus {
+    private final String category;
+    private final YearMonth period;
+    private final BigDecimal limit;
+    private final BigDecimal spent;
+
+    public BudgetStatus(String category, YearMonth period, BigDecimal limit, BigDecimal spent) {
+        this.category = category;
+        this.period = period;
+        this.limit = limit;
+        this.spent = spent;
+    }
+
+    public String getCategory() { return category; }
+    public YearMonth getPeriod() { return period; }
+    public BigDecimal getLimit() { return limit; }
+    public BigDecimal getSpent() { return spent; }
+    public BigDecimal getRemaining() { return limit.subtract(spent); }
+
+    // Share of the limit spent, in whole percent; above 100 when over budget
+    public int getPercentUsed() {
+        return spent.multiply(BigDecimal.valueOf(100)).divide(limit, 0, RoundingMode.FLOOR).intValue();
+    }
+}
@@ -0,0 +1,130 @@
+package com.financetracker;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Monthly budgets and this month's spend per budgeted category, in cents. Loaded from
+// the monthly rollup when the day changes or budgets are edited; in between, every
+// added or removed row is applied with one map lookup, so checking a budget costs the
+// same however long the history is. Each budget remembers the highest threshold its
+// spend has reached, so a threshold is reported once when crossed, and again only if
+// spending fell back under it first.
+public class BudgetTracker {
+    // Percent of the limit at which an alert is raised
+    public static final int[] THRESHOLDS = {80, 100};
+
+    public record Alert(BudgetStatus status, int thresholdPercent) {
+    }
+
+    private static final class Budget {
+        final String category;
+        final long limitCents;
+        long spentCents;
+        int level;  // thresholds reached
+
+        Budget(String category, long limitCents, long spentCents) {
+            this.category = category;
+            this.limitCents = limitCents;
+            this.spentCents = spentCents;
+            this.level = levelOf(spentCents, limitCents);
+        }
+    }
+
+    // By normalized category name
+    private Map<String, Budget> budgets = new HashMap<>();
+    private LocalDate loadedOn;
+    private YearMonth period;
+    // Calls to apply so far, so a load read without the write lock can tell it raced one
+    private long appliedCount;
+
+    // Whether the figures were loaded today; if not, the period may have moved on
+    public synchronized boolean isCurrent(LocalDate today) {
+        return today.equals(loadedOn);
+    }
+
+    public synchronized YearMonth getPeriod() {
+        return period;
+    }
+
+    public synchronized long getAppliedCount() {
+        return appliedCount;
+    }
+
+    // Replaces every budget with freshly read figures, { limit cents, spent cents } by
+    // category name, and returns the thresholds that have been reached since the last load
+    public synchronized List<Alert> reset(LocalDate today, Map<String, long[]> figures) {
+        YearMonth newPeriod = YearMonth.from(today);
+        Map<String, Budget> previous = newPeriod.equals(period) ? budgets : Map.of();
+        Map<String, Budget> loaded = new HashMap<>();
+        List<Alert> alerts = new ArrayList<>();
+        figures.forEach((category, values) -> {
+            String key = NameDictionary.normalize(category);
+            Budget budget = new Budget(category, values[0], values[1]);
+            Budget before = previous.get(key);
+            // A changed limit starts over, as if the budget were new
+            int levelBefore = before == null || before.limitCents != budget.limitCents ? 0 : before.level;
+            if (budget.level > levelBefore) {
+                alerts.add(new Alert(statusOf(budget, newPeriod), THRESHOLDS[budget.level - 1]));
+            }
+            loaded.put(key, budget);
+        });
+        budgets = loaded;
+        loadedOn = today;
+        period = newPeriod;
+        return alerts;
+    }
+
+    // reset, but only if apply has not been called since getAppliedCount returned
+    // appliedBefore; otherwise the figures may miss that row, and it returns null
+    public synchronized List<Alert> resetIfUnchanged(long appliedBefore, LocalDate today, Map<String, long[]> figures) {
+        return appliedCount == appliedBefore ? reset(today, figures) : null;
+    }
+
+    // Applies one added (sign 1) or removed (sign -1) row, homeCents being its amount in
+    // the home currency; returns the alert if it made the category's spend reach a new
+    // threshold, otherwise null
+    public synchronized Alert apply(Transaction transaction, long homeCents, int sign) {
+        appliedCount++;
+        if (transaction.getType() != Transaction.TransactionType.EXPENSE || period == null
+                || !YearMonth.from(transaction.getDate()).equals(period)) {
+            return null;
+        }
+        Budget budget = budgets.get(NameDictionary.normalize(transaction.getCategory()));
+        if (budget == null) {
+            return null;
+        }
+        budget.spentCents += sign * homeCents;
+        int level = levelOf(budget.spentCents, budget.limitCents);
+        boolean crossed = level > budget.level;
+        budget.level = level;
+        return crossed ? new Alert(statusOf(budget, period), THRESHOLDS[level - 1]) : null;
+    }
+
+    // Most used first
+    public synchronized List<BudgetStatus> getStatuses() {
+        List<BudgetStatus> statuses = new ArrayList<>(budgets.size());
+        for (Budget budget : budgets.values()) {
+            statuses.add(statusOf(budget, period));
+        }
+        statuses.sort(Comparator.comparingInt(BudgetStatus::getPercentUsed).reversed()
+                .thenComparing(BudgetStatus::getCategory));
+        return statuses;
+    }
+
+    private static int levelOf(long spentCents, long limitCents) {
+        int level = 0;
+        while (level < THRESHOLDS.length && spentCents * 100 >= limitCents * THRESHOLDS[level]) {
+            level++;
+        }
+        return level;
+    }
+
+    private static BudgetStatus statusOf(Budget budget, YearMonth period) {
+        return new BudgetStatus(budget.category, period, Money.fromCents(budget.limitCents), Money.fromCents(budget.spentCents));
+    }
+}
@@ -0,0 +1,445 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+// The ledger held column by column in primitive arrays for analytics scans: amounts as
+// long cents, dates as int epoch days, categories and currencies as int codes into
+// dictionaries and the type as one bit per row. Amounts are in the row's own currency;
+// scans convert them as they go if they need to. That is about 24 bytes a row and no
+// per-row objects, against several hundred bytes for a Transaction with its BigDecimal,
+// LocalDate and Strings.
+//
+// Rows are kept in id order. Removed rows are only marked in a bitset and squeezed out
+// once they make up half of the arrays. TransactionManager loads the store on first use
+// and updates it under the database write lock, so it always matches the committed data.
+// The load itself reads on a read connection; only its short catch-up takes the lock.
+public class ColumnarTransactionStore {
+
+    // Receives one live row at a time during a scan
+    @FunctionalInterface
+    public interface RowVisitor {
+        void visit(int id, int epochDay, long cents, int categoryCode, int currencyCode, boolean income);
+    }
+
+    static final String LOAD_SQL = "SELECT id, date, amount_cents, category, type, currency FROM transaction_rows WHERE id > ? ORDER BY id";
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_COMPACT_ROWS = 1024;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private boolean loaded;
+    // Ids removed while a load reads outside the write lock; null when no load is running
+    private BitSet removedWhileLoading;
+
+    private int[] ids = new int[INITIAL_CAPACITY];
+    private int[] days = new int[INITIAL_CAPACITY];
+    private long[] cents = new long[INITIAL_CAPACITY];
+    private int[] categoryCodes = new int[INITIAL_CAPACITY];
+    private int[] currencyCodes = new int[INITIAL_CAPACITY];
+    private final BitSet income = new BitSet();
+    private final BitSet deleted = new BitSet();
+    private int rowCount;      // rows in the arrays, including removed ones
+    private int deletedCount;
+
+    // Category dictionary; codes are never reused, so a code stays valid for the store's life
+    private final List<String> categoryNames = new ArrayList<>();
+    private final Map<String, Integer> categoryIndex = new HashMap<>();
+    private final List<String> currencyNames = new ArrayList<>();
+    private final Map<String, Integer> currencyIndex = new HashMap<>();
+
+    public boolean isLoaded() {
+        lock.readLock().lock();
+        try {
+            return loaded;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // First step of a load: from here on removals are remembered, so rows the load reads
+    // and a writer then removes are still taken out. Call before reading.
+    void startLoad() {
+        lock.writeLock().lock();
+        try {
+            if (!loaded && removedWhileLoading == null) {
+                removedWhileLoading = new BitSet();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Reads every committed row into a new store on a read connection, holding no lock,
+    // so writers carry on meanwhile
+    static ColumnarTransactionStore readAll(PooledConnection reader) throws SQLException {
+        ColumnarTransactionStore staged = new ColumnarTransactionStore();
+        staged.readRowsAfter(reader, 0);
+        return staged;
+    }
+
+    // Last step, with the caller holding the database write lock: takes over the rows
+    // read by readAll, drops those removed since and appends those inserted since.
+    // A no-op if another load got there first.
+    void finishLoad(ColumnarTransactionStore staged, PooledConnection writer) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            clear();
+            ids = staged.ids;
+            days = staged.days;
+            cents = staged.cents;
+            categoryCodes = staged.categoryCodes;
+            currencyCodes = staged.currencyCodes;
+            income.or(staged.income);
+            rowCount = staged.rowCount;
+            categoryNames.addAll(staged.categoryNames);
+            categoryIndex.putAll(staged.categoryIndex);
+            currencyNames.addAll(staged.currencyNames);
+            currencyIndex.putAll(staged.currencyIndex);
+            loaded = true;
+            if (removedWhileLoading != null) {
+                for (int id = removedWhileLoading.nextSetBit(0); id >= 0; id = removedWhileLoading.nextSetBit(id + 1)) {
+                    markRemoved(id);
+                }
+                removedWhileLoading = null;
+            }
+            readRowsAfter(writer, rowCount == 0 ? 0 : ids[rowCount - 1]);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Appends rows inserted since the last one the store holds, e.g. after a bulk import
+    void catchUp(PooledConnection connection) throws SQLException {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                readRowsAfter(connection, rowCount == 0 ? 0 : ids[rowCount - 1]);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void readRowsAfter(PooledConnection connection, int lastId) throws SQLException {
+        PreparedStatement pstmt = connection.prepare(LOAD_SQL);
+        pstmt.setInt(1, lastId);
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                appendRow(rs.getInt(1), (int) rs.getLong(2), rs.getLong(3), rs.getString(4),
+                        Transaction.TransactionType.valueOf(rs.getString(5)), rs.getString(6));
+            }
+        }
+    }
+
+    void append(int id, long epochDay, long amountCents, String category, Transaction.TransactionType type,
+                String currency) {
+        lock.writeLock().lock();
+        try {
+            // Rows the store already picked up from the database are skipped
+            if (loaded && (rowCount == 0 || id > ids[rowCount - 1])) {
+                appendRow(id, (int) epochDay, amountCents, category, type, currency);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    void remove(int id) {
+        lock.writeLock().lock();
+        try {
+            if (loaded) {
+                markRemoved(id);
+            } else if (removedWhileLoading != null) {
+                removedWhileLoading.set(id);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void markRemoved(int id) {
+        int row = Arrays.binarySearch(ids, 0, rowCount, id);
+        if (row >= 0 && !deleted.get(row)) {
+            deleted.set(row);
+            deletedCount++;
+            if (deletedCount >= MIN_COMPACT_ROWS && deletedCount * 2 >= rowCount) {
+                compact();
+            }
+        }
+    }
+
+    // Drops the contents, e.g. when a write the store already saw was rolled back; the
+    // next TransactionManager.getColumnarStore() reloads it
+    void unload() {
+        lock.writeLock().lock();
+        try {
+            clear();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void clear() {
+        rowCount = 0;
+        deletedCount = 0;
+        income.clear();
+        deleted.clear();
+        categoryNames.clear();
+        categoryIndex.clear();
+        currencyNames.clear();
+        currencyIndex.clear();
+    }
+
+    private void appendRow(int id, int epochDay, long amountCents, String category, Transaction.TransactionType type,
+                           String currency) {
+        if (rowCount == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            days = Arrays.copyOf(days, capacity);
+            cents = Arrays.copyOf(cents, capacity);
+            categoryCodes = Arrays.copyOf(categoryCodes, capacity);
+            currencyCodes = Arrays.copyOf(currencyCodes, capacity);
+        }
+        ids[rowCount] = id;
+        days[rowCount] = epochDay;
+        cents[rowCount] = amountCents;
+        categoryCodes[rowCount] = code(category, categoryNames, categoryIndex);
+        currencyCodes[rowCount] = code(currency, currencyNames, currencyIndex);
+        income.set(rowCount, type == Transaction.TransactionType.INCOME);
+        rowCount++;
+    }
+
+    private static int code(String name, List<String> names, Map<String, Integer> index) {
+        Integer code = index.get(name);
+        if (code == null) {
+            code = names.size();
+            names.add(name);
+            index.put(name, code);
+        }
+        return code;
+    }
+
+    // Moves the live rows down over the removed ones, keeping id order
+    private void compact() {
+        int live = 0;
+        for (int row = deleted.nextClearBit(0); row < rowCount; row = deleted.nextClearBit(row + 1)) {
+            ids[live] = ids[row];
+            days[live] = days[row];
+            cents[live] = cents[row];
+            categoryCodes[live] = categoryCodes[row];
+            currencyCodes[live] = currencyCodes[row];
+            income.set(live, income.get(row));
+            live++;
+        }
+        income.clear(live, rowCount);
+        deleted.clear();
+        deletedCount = 0;
+        rowCount = live;
+    }
+
+    // Number of live rows
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return rowCount - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Number of array slots, live or removed; the bound for scan(from, to, visitor)
+    public int rowCount() {
+        lock.readLock().lock();
+        try {
+            return rowCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int categoryCount() {
+        lock.readLock().lock();
+        try {
+            return categoryNames.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String categoryName(int code) {
+        lock.readLock().lock();
+        try {
+            return categoryNames.get(code);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Every currency code's name, in code order; codes are never reused either
+    public List<String> currencyNames() {
+        lock.readLock().lock();
+        try {
+            return List.copyOf(currencyNames);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Runs work with the read lock held: writes wait, so row slots and category codes
+    // stay put until it returns. Within it, scanUnlocked may be called from any thread.
+    public <T> T locked(Supplier<T> work) {
+        lock.readLock().lock();
+        try {
+            return work.get();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Only valid inside locked(); used by fork/join workers that cannot take the lock themselves
+    void scanUnlocked(int from, int to, RowVisitor visitor) {
+        scanRows(from, Math.min(to, rowCount), visitor);
+    }
+
+    public void scan(RowVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            scanRows(0, rowCount, visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Visits the live rows among array slots [from, to), so a scan can be split into chunks
+    public void scan(int from, int to, RowVisitor visitor) {
+        lock.readLock().lock();
+        try {
+            scanRows(from, Math.min(to, rowCount), visitor);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void scanRows(int from, int to, RowVisitor visitor) {
+        for (int row = from; row < to; row++) {
+            if (deletedCount == 0 || !deleted.get(row)) {
+                visitor.visit(ids[row], days[row], cents[row], categoryCodes[row], currencyCodes[row], income.get(row));
+            }
+        }
+    }
+
+    // Totals per category for one transaction type, largest first
+    public Map<String, BigDecimal> getCategoryTotals(Transaction.TransactionType type) {
+        boolean wantIncome = type == Transaction.TransactionType.INCOME;
+        lock.readLock().lock();
+        try {
+            long[] totals = new long[categoryNames.size()];
+            boolean[] seen = new boolean[totals.length];
+            for (int row = 0; row < rowCount; row++) {
+                if (income.get(row) == wantIncome && (deletedCount == 0 || !deleted.get(row))) {
+                    totals[categoryCodes[row]] += cents[row];
+                    seen[categoryCodes[row]] = true;
+                }
+            }
+
+            Integer[] order = new Integer[totals.length];
+            for (int code = 0; code < order.length; code++) {
+                order[code] = code;
+            }
+            Arrays.sort(order, (a, b) -> Long.compare(totals[b], totals[a]));
+
+            Map<String, BigDecimal> categoryTotals = new LinkedHashMap<>();
+            for (int code : order) {
+                if (seen[code]) {
+                    categoryTotals.put(categoryNames.get(code), Money.fromCents(totals[code]));
+                }
+            }
+            return categoryTotals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Totals per month of the year (1-12) across all years, for each type
+    public Map<Transaction.TransactionType, Map<Integer, BigDecimal>> getMonthlyTotals() {
+        lock.readLock().lock();
+        try {
+            long[][] totals = new long[2][13];
+            boolean[][] seen = new boolean[2][13];
+            for (int row = 0; row < rowCount; row++) {
+                if (deletedCount == 0 || !deleted.get(row)) {
+                    int type = income.get(row) ? 0 : 1;
+                    int month = monthOf(days[row]);
+                    totals[type][month] += cents[row];
+                    seen[type][month] = true;
+                }
+            }
+
+            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthlyTotals =
+                    new EnumMap<>(Transaction.TransactionType.class);
+            monthlyTotals.put(Transaction.TransactionType.INCOME, toMonthMap(totals[0], seen[0]));
+            monthlyTotals.put(Transaction.TransactionType.EXPENSE, toMonthMap(totals[1], seen[1]));
+            return monthlyTotals;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static Map<Integer, BigDecimal> toMonthMap(long[] totals, boolean[] seen) {
+        Map<Integer, BigDecimal> months = new TreeMap<>();
+        for (int month = 1; month <= 12; month++) {
+            if (seen[month]) {
+                months.put(month, Money.fromCents(totals[month]));
+            }
+        }
+        return months;
+    }
+
+    // Month (1-12) of a day count since 1970-01-01 without building a LocalDate
+    static int monthOf(int epochDay) {
+        return Math.floorMod(yearMonthOf(epochDay), 12) + 1;
+    }
+
+    // year * 12 + (month - 1) for a day count since 1970-01-01, using the
+    // civil-from-days calculation on a March-based year
+    static int yearMonthOf(int epochDay) {
+        int z = epochDay + 719468;
+        int era = Math.floorDiv(z, 146097);
+        int dayOfEra = z - era * 146097;
+        int yearOfEra = (dayOfEra - dayOfEra / 1460 + dayOfEra / 36524 - dayOfEra / 146096) / 365;
+        int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        int monthIndex = (5 * dayOfYear + 2) / 153;
+        int month = monthIndex < 10 ? monthIndex + 3 : monthIndex - 9;
+        int year = yearOfEra + era * 400 + (month <= 2 ? 1 : 0);
+        return year * 12 + month - 1;
+    }
+
+    // Rough heap used by the column arrays and bitsets
+    public long estimatedBytes() {
+        lock.readLock().lock();
+        try {
+            long arrays = (long) ids.length * (Integer.BYTES * 4 + Long.BYTES);
+            return arrays + (income.size() + deleted.size()) / 8;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.financetracker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Streams a CSV file into TransactionManager.addTransactions one record at a time.
+// Expected columns: date,description,amount,category,type (header row optional),
+// optionally followed by account,currency; rows without them go to the default account
+// in the home currency.
+public class CsvTransactionImporter {
+    private final TransactionManager transactionManager;
+
+    public CsvTransactionImporter(TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    public int importFile(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return transactionManager.addTransactions(new LineIterator(reader, transactionManager.getFxRates()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    // Parses lazily so the file is never held in memory as a whole
+    private static class LineIterator implements Iterator<Transaction> {
+        private final BufferedReader reader;
+        private final FxRateTable rates;
+        private Transaction next;
+        private int lineNumber;
+
+        LineIterator(BufferedReader reader, FxRateTable rates) {
+            this.reader = reader;
+            this.rates = rates;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && line.toLowerCase().startsWith("date,"))) {
+                        continue;
+                    }
+                    int firstLine = lineNumber;
+                    next = parse(readRecord(line), firstLine);
+                    // Reported here with its line; the insert would only name the currency
+                    if (!rates.hasRates(next.getCurrency())) {
+                        throw new IllegalArgumentException("Line " + firstLine + ": no exchange rates for "
+                                + next.getCurrency() + "; import them first");
+                    }
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        // A quoted field may hold line breaks, so a record runs on until its quotes close
+        private String readRecord(String line) throws IOException {
+            boolean open = hasOddQuotes(line);
+            if (!open) {
+                return line;
+            }
+            StringBuilder record = new StringBuilder(line);
+            String more;
+            while (open && (more = reader.readLine()) != null) {
+                lineNumber++;
+                record.append('\n').append(more);
+                open ^= hasOddQuotes(more);
+            }
+            return record.toString();
+        }
+
+        @Override
+        public Transaction next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            Transaction transaction = next;
+            next = null;
+            return transaction;
+        }
+    }
+
+    static Transaction parse(String line, int lineNumber) {
+        List<String> fields = splitLine(line);
+        if (fields.size() != 5 && fields.size() != 7) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected 5 or 7 fields but found " + fields.size());
+        }
+        boolean ledger = fields.size() == 7;
+        try {
+            return new Transaction(
+                    LocalDate.parse(fields.get(0).trim()),
+                    fields.get(1).trim(),
+                    new BigDecimal(fields.get(2).trim()),
+                    fields.get(3).trim(),
+                    Transaction.TransactionType.valueOf(fields.get(4).trim().toUpperCase()),
+                    ledger ? fields.get(5).trim() : Transaction.DEFAULT_ACCOUNT,
+                    ledger ? fields.get(6) : Transaction.HOME_CURRENCY
+            );
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+
+    // An escaped quote counts twice, so only an unclosed field leaves an odd count
+    private static boolean hasOddQuotes(String line) {
+        boolean odd = false;
+        for (int i = 0; i < line.length(); i++) {
+            if (line.charAt(i) == '"') {
+                odd = !odd;
+            }
+        }
+        return odd;
+    }
+
+    // Splits one CSV record, honouring double-quoted fields and "" escapes
+    static List<String> splitLine(String line) {
+        List<String> fields = new ArrayList<>(5);
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
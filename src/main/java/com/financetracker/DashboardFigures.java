@@ -0,0 +1,42 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+// Every figure the dashboard shows, read together by TransactionManager.getDashboardFigures
+public class DashboardFigures {
+    private final FinancialSummary summary;
+    private final Map<String, BigDecimal> expenseCategoryTotals;
+    private final Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthlyTotals;
+    private final TrendGranularity granularity;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final List<TrendPoint> trend;
+
+    public DashboardFigures(FinancialSummary summary,
+                            Map<String, BigDecimal> expenseCategoryTotals,
+                            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthlyTotals,
+                            TrendGranularity granularity, LocalDate from, LocalDate to,
+                            List<TrendPoint> trend) {
+        this.summary = summary;
+        this.expenseCategoryTotals = expenseCategoryTotals;
+        this.monthlyTotals = monthlyTotals;
+        this.granularity = granularity;
+        this.from = from;
+        this.to = to;
+        this.trend = trend;
+    }
+
+    public FinancialSummary getSummary() { return summary; }
+    // Largest first
+    public Map<String, BigDecimal> getExpenseCategoryTotals() { return expenseCategoryTotals; }
+    // Per type, totals by month of the year (1-12) across all years
+    public Map<Transaction.TransactionType, Map<Integer, BigDecimal>> getMonthlyTotals() { return monthlyTotals; }
+    public TrendGranularity getGranularity() { return granularity; }
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    // Non-empty buckets between from and to, oldest first
+    public List<TrendPoint> getTrend() { return trend; }
+}
@@ -0,0 +1,108 @@
+package com.financetracker;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+// SQLite access in WAL mode: one writer connection used under a lock, plus a small
+// pool of read-only connections so queries can run while a write is in progress.
+public class Database {
+    static final int READER_COUNT = 4;
+
+    private final PooledConnection writer;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final BlockingQueue<PooledConnection> readers = new ArrayBlockingQueue<>(READER_COUNT);
+
+    public Database(String path) throws SQLException {
+        String url = "jdbc:sqlite:" + path;
+
+        Connection writeConnection = open(url);
+        try (Statement stmt = writeConnection.createStatement()) {
+            stmt.execute("PRAGMA journal_mode = WAL");
+            stmt.execute("PRAGMA synchronous = NORMAL");
+        }
+        // The schema must be current before any reader looks at it
+        new SchemaMigrator(writeConnection).migrate();
+        this.writer = new PooledConnection(writeConnection);
+
+        for (int i = 0; i < READER_COUNT; i++) {
+            Connection readConnection = open(url);
+            try (Statement stmt = readConnection.createStatement()) {
+                stmt.execute("PRAGMA query_only = ON");
+            }
+            readers.add(new PooledConnection(readConnection));
+        }
+    }
+
+    private static Connection open(String url) throws SQLException {
+        Connection connection = DriverManager.getConnection(url);
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("PRAGMA busy_timeout = 5000");
+        }
+        return connection;
+    }
+
+    // Runs a query on a pooled read-only connection, waiting for one if all are busy
+    public <T> T read(SqlFunction<PooledConnection, T> work) throws SQLException {
+        PooledConnection reader;
+        try {
+            reader = readers.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a database connection", e);
+        }
+        try {
+            return work.apply(reader);
+        } finally {
+            readers.add(reader);
+        }
+    }
+
+    // Runs a single auto-committed write on the writer connection
+    public <T> T write(SqlFunction<PooledConnection, T> work) throws SQLException {
+        writeLock.lock();
+        try {
+            return work.apply(writer);
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    // Runs several writes as one transaction, rolling back if any of them fails
+    public <T> T writeInTransaction(SqlFunction<PooledConnection, T> work) throws SQLException {
+        writeLock.lock();
+        Connection connection = writer.getConnection();
+        try {
+            connection.setAutoCommit(false);
+            try {
+                T result = work.apply(writer);
+                connection.commit();
+                return result;
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    public void close() throws SQLException {
+        writeLock.lock();
+        try {
+            for (PooledConnection reader : readers) {
+                reader.close();
+            }
+            readers.clear();
+            writer.close();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+}
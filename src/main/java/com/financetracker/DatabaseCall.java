@@ -0,0 +1,41 @@
+package com.financetracker;
+
+import jdk.jfr.FlightRecorder;
+
+// Times one TransactionManager operation. Started with start(), closed with finish(rows),
+// which feeds the timings into Metrics and, while Flight Recorder is running, emits a
+// DatabaseCallEvent. The event class is only loaded once JFR is up: loading a JFR event
+// class before that sets up JFR's instrumentation, some 300 ms that short-lived
+// processes like FinanceCli would otherwise pay on their first query.
+final class DatabaseCall {
+    private final String operation;
+    private final long startNanos;
+    private final DatabaseCallEvent event;
+    private long mappingTime;
+
+    private DatabaseCall(String operation, DatabaseCallEvent event) {
+        this.operation = operation;
+        this.event = event;
+        this.startNanos = System.nanoTime();
+    }
+
+    static DatabaseCall start(String operation, String sql) {
+        return new DatabaseCall(operation,
+                FlightRecorder.isInitialized() ? DatabaseCallEvent.start(operation, sql) : null);
+    }
+
+    void addMappingTime(long nanos) {
+        mappingTime += nanos;
+    }
+
+    void finish(int rows) {
+        if (event != null) {
+            event.finish(rows, mappingTime);
+        }
+        Metrics.recordLatency("db." + operation, System.nanoTime() - startNanos);
+        Metrics.increment("db." + operation + ".rows", rows);
+        if (mappingTime > 0) {
+            Metrics.recordLatency("db.mapping", mappingTime);
+        }
+    }
+}
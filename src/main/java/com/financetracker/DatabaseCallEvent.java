@@ -0,0 +1,50 @@
+package com.financetracker;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// JFR event for one TransactionManager operation, created by DatabaseCall while a
+// recording is running
+@Name("com.financetracker.DatabaseCall")
+@Label("Database Call")
+@Category({"Finance Tracker", "Database"})
+@Description("A TransactionManager operation and the SQL it ran")
+@StackTrace(false)
+public class DatabaseCallEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("SQL")
+    String sql;
+
+    @Label("Row Count")
+    int rowCount;
+
+    @Label("Mapping Time")
+    @Description("Time spent turning result rows into Transaction objects")
+    @Timespan(Timespan.NANOSECONDS)
+    long mappingTime;
+
+    static DatabaseCallEvent start(String operation, String sql) {
+        DatabaseCallEvent event = new DatabaseCallEvent();
+        event.operation = operation;
+        event.sql = sql;
+        event.begin();
+        return event;
+    }
+
+    void finish(int rows, long mappingNanos) {
+        end();
+        rowCount = rows;
+        mappingTime = mappingNanos;
+        if (shouldCommit()) {
+            commit();
+        }
+    }
+}
@@ -0,0 +1,238 @@
+package com.financetracker;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+// Command-line entry point for scripts and cron jobs. It only touches TransactionManager
+// and the classes behind it, never JavaFX, so the toolkit is not even loaded:
+//
+//     java -cp <classpath> com.financetracker.FinanceCli [--db <file>] [--timing] [--currency <code>] <command>
+//
+// Commands:
+//     import <file.csv>                 add the rows of a CSV bank export
+//     rates <file.csv>                  add daily exchange rates, as date,currency,rate lines
+//     summary                           print income, expenses, balance and row count
+//     export <file.csv|file.json>       write rows out, optionally filtered with
+//         [--from <date>] [--to <date>] [--category <name>] [--type INCOME|EXPENSE]
+//         [--min <amount>] [--max <amount>] [--search <text>]
+//     compact                           reclaim free space and tidy the indexes
+//
+// --currency reports the summary in that currency instead of the home currency, converting
+// each row at its day's rate.
+// --timing prints how long opening the database and the command took to stderr. Commands
+// that change data save the aggregate snapshot afterwards, so the next start, of this or
+// of the app, is warm.
+public final class FinanceCli {
+    static final int EXIT_OK = 0;
+    static final int EXIT_FAILED = 1;
+    static final int EXIT_USAGE = 2;
+
+    private static final String DEFAULT_DATABASE = "finance_tracker.sqlite";
+
+    private final PrintStream out;
+    private final PrintStream err;
+
+    FinanceCli(PrintStream out, PrintStream err) {
+        this.out = out;
+        this.err = err;
+    }
+
+    public static void main(String[] args) {
+        System.exit(new FinanceCli(System.out, System.err).run(args));
+    }
+
+    int run(String[] args) {
+        long started = System.nanoTime();
+        String database = DEFAULT_DATABASE;
+        boolean timing = false;
+        String currency = null;
+        List<String> rest = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--db" -> {
+                    if (++i == args.length) {
+                        return usage("--db needs a file");
+                    }
+                    database = args[i];
+                }
+                case "--timing" -> timing = true;
+                case "--currency" -> {
+                    if (++i == args.length) {
+                        return usage("--currency needs a currency code");
+                    }
+                    currency = args[i];
+                }
+                case "-h", "--help" -> {
+                    return usage(null);
+                }
+                default -> rest.add(args[i]);
+            }
+        }
+        if (rest.isEmpty()) {
+            return usage("No command given");
+        }
+        String command = rest.get(0);
+        List<String> arguments = rest.subList(1, rest.size());
+        if (!List.of("import", "rates", "summary", "export", "compact").contains(command)) {
+            return usage("Unknown command: " + command);
+        }
+        // Checked up front so a typo does not create an empty database
+        if (!command.equals("import") && !command.equals("rates") && !Files.exists(Paths.get(database))) {
+            err.println("No database at " + database);
+            return EXIT_FAILED;
+        }
+
+        TransactionManager transactionManager;
+        try {
+            transactionManager = new TransactionManager(database);
+        } catch (RuntimeException e) {
+            err.println(e.getMessage());
+            return EXIT_FAILED;
+        }
+        long opened = System.nanoTime();
+
+        int status;
+        try {
+            if (currency != null) {
+                transactionManager.setReportingCurrency(currency);
+            }
+            status = switch (command) {
+                case "import" -> importFile(transactionManager, arguments);
+                case "rates" -> importRates(transactionManager, arguments);
+                case "summary" -> summary(transactionManager, arguments);
+                case "export" -> export(transactionManager, arguments);
+                default -> compact(transactionManager, arguments, database);
+            };
+        } catch (IOException | RuntimeException e) {
+            err.println("Error: " + e.getMessage());
+            status = EXIT_FAILED;
+        } finally {
+            transactionManager.close();
+        }
+
+        if (timing) {
+            long finished = System.nanoTime();
+            err.printf("timing: open %.1f ms, %s %.1f ms, total %.1f ms%n",
+                    (opened - started) / 1e6, command, (finished - opened) / 1e6, (finished - started) / 1e6);
+        }
+        return status;
+    }
+
+    private int importFile(TransactionManager transactionManager, List<String> arguments) throws IOException {
+        if (arguments.size() != 1) {
+            return usage("import takes one CSV file");
+        }
+        int count = new CsvTransactionImporter(transactionManager).importFile(Paths.get(arguments.get(0)));
+        transactionManager.saveSnapshot();
+        out.printf("Imported %,d transactions%n", count);
+        return EXIT_OK;
+    }
+
+    private int importRates(TransactionManager transactionManager, List<String> arguments) throws IOException {
+        if (arguments.size() != 1) {
+            return usage("rates takes one CSV file");
+        }
+        int count = new FxRateImporter(transactionManager).importFile(Paths.get(arguments.get(0)));
+        // Rates reprice the foreign rows, which changes the rollups the snapshot holds
+        transactionManager.saveSnapshot();
+        FxRateTable rates = transactionManager.getFxRates();
+        out.printf("Imported %,d exchange rates; %d currencies from %s to %s%n", count,
+                rates.getCurrencies().size(), rates.getFirstDay(), rates.getLastDay());
+        return EXIT_OK;
+    }
+
+    private int summary(TransactionManager transactionManager, List<String> arguments) {
+        if (!arguments.isEmpty()) {
+            return usage("summary takes no arguments");
+        }
+        FinancialSummary summary = transactionManager.getFinancialSummary();
+        out.printf("Transactions:   %,14d%n", transactionManager.getTransactionCount());
+        out.printf("Currency:       %14s%n", transactionManager.getReportingCurrency());
+        out.printf("Total Income:   %,14.2f%n", summary.getTotalIncome());
+        out.printf("Total Expenses: %,14.2f%n", summary.getTotalExpenses());
+        out.printf("Balance:        %,14.2f%n", summary.getBalance());
+        return EXIT_OK;
+    }
+
+    private int export(TransactionManager transactionManager, List<String> arguments) throws IOException {
+        Path file = null;
+        LocalDate from = null;
+        LocalDate to = null;
+        BigDecimal min = null;
+        BigDecimal max = null;
+        TransactionQuery.Builder query = TransactionQuery.builder();
+        for (int i = 0; i < arguments.size(); i++) {
+            String argument = arguments.get(i);
+            if (!argument.startsWith("--")) {
+                if (file != null) {
+                    return usage("export takes one output file");
+                }
+                file = Paths.get(argument);
+                continue;
+            }
+            if (++i == arguments.size()) {
+                return usage(argument + " needs a value");
+            }
+            String value = arguments.get(i);
+            try {
+                switch (argument) {
+                    case "--from" -> from = LocalDate.parse(value);
+                    case "--to" -> to = LocalDate.parse(value);
+                    case "--category" -> query.category(value);
+                    case "--type" -> query.type(Transaction.TransactionType.valueOf(value.toUpperCase()));
+                    case "--min" -> min = new BigDecimal(value);
+                    case "--max" -> max = new BigDecimal(value);
+                    case "--search" -> query.matching(value);
+                    default -> {
+                        return usage("Unknown export option: " + argument);
+                    }
+                }
+            } catch (RuntimeException e) {
+                return usage("Bad value for " + argument + ": " + value);
+            }
+        }
+        if (file == null) {
+            return usage("export needs an output file");
+        }
+        query.between(from, to).amountBetween(min, max);
+
+        int count = new TransactionExporter(transactionManager)
+                .export(query.build(), file, TransactionExporter.Format.forFile(file));
+        out.printf("Exported %,d transactions to %s%n", count, file);
+        return EXIT_OK;
+    }
+
+    private int compact(TransactionManager transactionManager, List<String> arguments, String database) throws IOException {
+        if (!arguments.isEmpty()) {
+            return usage("compact takes no arguments");
+        }
+        Path file = Paths.get(database);
+        long before = Files.size(file);
+        transactionManager.compact();
+        transactionManager.saveSnapshot();
+        out.printf("Compacted %s: %,d KB -> %,d KB%n", file, before / 1024, Files.size(file) / 1024);
+        return EXIT_OK;
+    }
+
+    private int usage(String problem) {
+        if (problem != null) {
+            err.println(problem);
+        }
+        err.println("""
+                Usage: FinanceCli [--db <file>] [--timing] [--currency <code>] <command>
+                  import <file.csv>
+                  rates <file.csv>
+                  summary
+                  export <file.csv|file.json> [--from <date>] [--to <date>] [--category <name>]
+                         [--type INCOME|EXPENSE] [--min <amount>] [--max <amount>] [--search <text>]
+                  compact""");
+        return problem == null ? EXIT_OK : EXIT_USAGE;
+    }
+}
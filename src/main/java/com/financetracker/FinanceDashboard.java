@@ -1,13 +1,18 @@
 package com.financetracker;
 
 import javafx.geometry.Insets;
+import javafx.scene.chart.CategoryAxis;
 import javafx.scene.chart.PieChart;
 import javafx.scene.chart.LineChart;
 import javafx.scene.chart.NumberAxis;
 import javafx.scene.chart.XYChart;
+import javafx.scene.control.Alert;
+import javafx.scene.control.Button;
+import javafx.scene.control.ChoiceBox;
 import javafx.scene.control.Label;
-import javafx.scene.control.Tab;
-import javafx.scene.control.TabPane;
+import javafx.scene.control.ProgressBar;
+import javafx.scene.control.TextField;
+import javafx.scene.layout.HBox;
 import javafx.scene.layout.GridPane;
 import javafx.scene.layout.VBox;
 import javafx.geometry.Pos;
@@ -15,22 +20,64 @@ import javafx.application.Platform;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.Month;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
-public class FinanceDashboard extends VBox implements TransactionListener {
+public class FinanceDashboard extends VBox implements TransactionListener, BudgetListener {
+    private static final String SUMMARY_LABEL_STYLE = "-fx-font-size: 18px; -fx-font-weight: bold;";
+    private static final int DEFAULT_MONTHS = 24;
+    private static final int DEFAULT_DAYS = 60;
+
     private TransactionManager transactionManager;
     private PieChart expenseChart;
-    private LineChart<Number, Number> trendChart;
+    private LineChart<String, Number> trendChart;
+    private ChoiceBox<TrendGranularity> granularityBox;
+
+    private Label incomeLabel;
+    private Label expensesLabel;
+    private Label balanceLabel;
+    private VBox budgetRows;
+
+    // What the charts currently show, so a change can patch a single slice or point
+    private final Map<String, BigDecimal> categoryTotals = new HashMap<>();
+    private final Map<String, PieChart.Data> expenseSlices = new HashMap<>();
+    private final Map<Transaction.TransactionType, Map<LocalDate, BigDecimal>> bucketTotals = new EnumMap<>(Transaction.TransactionType.class);
+    private final Map<Transaction.TransactionType, Map<LocalDate, XYChart.Data<String, Number>>> trendPoints = new EnumMap<>(Transaction.TransactionType.class);
+
+    // The trend chart's current zoom; a null range means "default range for the granularity"
+    private TrendGranularity granularity = TrendGranularity.MONTH;
+    private LocalDate viewFrom;
+    private LocalDate viewTo;
+
+    // While a full load is in flight its results may predate a change, so changes
+    // that arrive meanwhile trigger another load instead of a patch
+    private int loadsInFlight;
+    private boolean reloadNeeded;
+    // Only the newest summary request is shown, so a slow one cannot overwrite a newer one
+    private int summaryRequest;
 
     public FinanceDashboard(TransactionManager transactionManager) {
         this.transactionManager = transactionManager;
         transactionManager.addTransactionListener(this);
+        transactionManager.addBudgetListener(this);
         setPadding(new Insets(20));
         setSpacing(20);
         getStyleClass().add("dashboard");
         setupDashboard();
+
+        // Stop listening once the dashboard leaves the screen, resume if it comes back
+        sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene == null) {
+                transactionManager.removeTransactionListener(this);
+                transactionManager.removeBudgetListener(this);
+            } else {
+                transactionManager.addTransactionListener(this);
+                transactionManager.addBudgetListener(this);
+                refreshBudgets();
+            }
+        });
     }
 
     private void setupDashboard() {
@@ -45,9 +92,15 @@ public class FinanceDashboard extends VBox implements TransactionListener {
         chartsGrid.setPadding(new Insets(5));
         chartsGrid.setAlignment(Pos.CENTER);
 
-        // Create and position charts
+        // Create and position charts; their data arrives asynchronously
         expenseChart = createExpenseDistributionChart();
         trendChart = createTrendChart();
+        // Until the first load finishes, the pie shows the startup snapshot if it is still current
+        AggregateSnapshot snapshot = transactionManager.getSnapshot();
+        if (snapshot != null) {
+            populateExpenseChart(snapshot.getCategoryTotals(Transaction.TransactionType.EXPENSE));
+        }
+        loadChartData();
 
         // Add title for each chart
         VBox expenseChartBox = new VBox(10);
@@ -56,9 +109,21 @@ public class FinanceDashboard extends VBox implements TransactionListener {
         expenseChartBox.getChildren().addAll(expenseChartTitle, expenseChart);
 
         VBox trendChartBox = new VBox(10);
-        Label trendChartTitle = new Label("Monthly Income vs Expenses");
+        Label trendChartTitle = new Label("Income vs Expenses");
         trendChartTitle.getStyleClass().add("chart-title");
-        trendChartBox.getChildren().addAll(trendChartTitle, trendChart);
+
+        // Zoom between years, months and days; clicking a point zooms into it
+        granularityBox = new ChoiceBox<>();
+        granularityBox.getItems().addAll(TrendGranularity.YEAR, TrendGranularity.MONTH, TrendGranularity.DAY);
+        granularityBox.setValue(granularity);
+        granularityBox.setOnAction(e -> {
+            if (granularityBox.getValue() != granularity) {
+                zoomTo(granularityBox.getValue(), null, null);
+            }
+        });
+        HBox trendHeader = new HBox(10, trendChartTitle, granularityBox);
+        trendHeader.setAlignment(Pos.CENTER_LEFT);
+        trendChartBox.getChildren().addAll(trendHeader, trendChart);
 
         // Add charts to grid
         chartsGrid.add(expenseChartBox, 0, 0);
@@ -68,7 +133,136 @@ public class FinanceDashboard extends VBox implements TransactionListener {
         VBox summaryBox = createFinancialSummaryBox();
 
         // Add all components to main layout
-        getChildren().addAll(title, summaryBox, chartsGrid);
+        getChildren().addAll(title, summaryBox, chartsGrid, createBudgetBox());
+    }
+
+    // This month's spend against each category budget, with a form to set one
+    private VBox createBudgetBox() {
+        Label budgetTitle = new Label("Monthly Budgets");
+        budgetTitle.getStyleClass().add("chart-title");
+
+        budgetRows = new VBox(6);
+
+        TextField categoryField = new TextField();
+        categoryField.setPromptText("Category");
+        TextField limitField = new TextField();
+        limitField.setPromptText("Monthly limit");
+        Button setButton = new Button("Set Budget");
+        setButton.setOnAction(e -> {
+            String category = categoryField.getText().trim();
+            BigDecimal limit;
+            try {
+                limit = new BigDecimal(limitField.getText().trim());
+            } catch (NumberFormatException ex) {
+                showError("Please enter a valid amount!");
+                return;
+            }
+            if (category.isEmpty() || limit.signum() <= 0) {
+                showError("Please enter a category and an amount above zero");
+                return;
+            }
+            setButton.setDisable(true);
+            transactionManager.setBudgetAsync(category, limit).whenComplete((result, error) -> Platform.runLater(() -> {
+                setButton.setDisable(false);
+                if (error != null) {
+                    Throwable cause = error.getCause() != null ? error.getCause() : error;
+                    showError("Error setting budget: " + cause.getMessage());
+                    return;
+                }
+                // The panel itself is refreshed by onBudgetsChanged
+                categoryField.clear();
+                limitField.clear();
+            }));
+        });
+        HBox form = new HBox(10, categoryField, limitField, setButton);
+        form.setAlignment(Pos.CENTER_LEFT);
+
+        refreshBudgets();
+
+        VBox budgetBox = new VBox(10, budgetTitle, budgetRows, form);
+        budgetBox.getStyleClass().add("budget-box");
+        return budgetBox;
+    }
+
+    // Statuses are kept in memory by the manager, so this is cheap on every change
+    private void refreshBudgets() {
+        transactionManager.getBudgetStatusesAsync().whenComplete((statuses, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+            showBudgets(statuses);
+        }));
+    }
+
+    private void showBudgets(List<BudgetStatus> statuses) {
+        budgetRows.getChildren().clear();
+        if (statuses.isEmpty()) {
+            budgetRows.getChildren().add(new Label("No budgets set"));
+            return;
+        }
+        for (BudgetStatus status : statuses) {
+            int percent = status.getPercentUsed();
+            // Budgets are kept in the home currency
+            Label label = new Label(String.format("%s: %s of %s (%d%%)", status.getCategory(),
+                    Money.format(status.getSpent(), Transaction.HOME_CURRENCY),
+                    Money.format(status.getLimit(), Transaction.HOME_CURRENCY), percent));
+            label.setMinWidth(260);
+
+            ProgressBar bar = new ProgressBar(Math.min(1.0, percent / 100.0));
+            bar.setPrefWidth(240);
+            // Green while under the first threshold, orange past it, red when over budget
+            String color = percent >= 100 ? "#D32F2F" : percent >= BudgetTracker.THRESHOLDS[0] ? "#F57C00" : "#388E3C";
+            bar.setStyle("-fx-accent: " + color + ";");
+
+            Button removeButton = new Button("Remove");
+            removeButton.setOnAction(e -> {
+                removeButton.setDisable(true);
+                transactionManager.removeBudgetAsync(status.getCategory()).whenComplete((removed, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        removeButton.setDisable(false);
+                        Throwable cause = error.getCause() != null ? error.getCause() : error;
+                        showError("Error removing budget: " + cause.getMessage());
+                    }
+                }));
+            });
+
+            HBox row = new HBox(10, label, bar, removeButton);
+            row.setAlignment(Pos.CENTER_LEFT);
+            budgetRows.getChildren().add(row);
+        }
+    }
+
+    @Override
+    public void onBudgetsChanged() {
+        Platform.runLater(this::refreshBudgets);
+    }
+
+    @Override
+    public void onBudgetThresholdCrossed(BudgetStatus status, int thresholdPercent) {
+        Platform.runLater(() -> {
+            Alert alert = new Alert(Alert.AlertType.WARNING);
+            alert.setTitle("Budget Alert");
+            alert.setHeaderText(null);
+            alert.setContentText(thresholdPercent >= 100
+                    ? String.format("%s is over budget: %s spent of %s this month.", status.getCategory(),
+                            Money.format(status.getSpent(), Transaction.HOME_CURRENCY),
+                            Money.format(status.getLimit(), Transaction.HOME_CURRENCY))
+                    : String.format("%s has reached %d%% of its budget: %s spent of %s this month.",
+                            status.getCategory(), thresholdPercent,
+                            Money.format(status.getSpent(), Transaction.HOME_CURRENCY),
+                            Money.format(status.getLimit(), Transaction.HOME_CURRENCY)));
+            // Not showAndWait, so a burst of alerts never blocks the event thread
+            alert.show();
+            refreshBudgets();
+        });
+    }
+
+    private void showError(String message) {
+        Alert alert = new Alert(Alert.AlertType.ERROR);
+        alert.setTitle("Error");
+        alert.setContentText(message);
+        alert.showAndWait();
     }
 
     private VBox createFinancialSummaryBox() {
@@ -77,148 +271,291 @@ public class FinanceDashboard extends VBox implements TransactionListener {
         summaryBox.setPadding(new Insets(0, 20, 20, 20));  // Adjust padding (top, right, bottom, left)
         summaryBox.getStyleClass().add("summary-box");
 
-        // Calculate summary values
-        BigDecimal totalIncome = getTotalIncome();
-        BigDecimal totalExpenses = getTotalExpenses();
-        BigDecimal balance = totalIncome.subtract(totalExpenses);
-
         // Style labels for income, expenses, and balance
-        Label incomeLabel = new Label(String.format("Total Income: $%,.2f", totalIncome));
+        incomeLabel = new Label();
         incomeLabel.getStyleClass().add("summary-label");
-        incomeLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
-        Label expensesLabel = new Label(String.format("Total Expenses: $%,.2f", totalExpenses));
+        expensesLabel = new Label();
         expensesLabel.getStyleClass().add("summary-label");
-        expensesLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
 
-        Label balanceLabel = new Label(String.format("Current Balance: $%,.2f", balance));
+        balanceLabel = new Label();
         balanceLabel.getStyleClass().add("summary-label");
-        balanceLabel.setStyle("-fx-font-size: 18px; -fx-font-weight: bold;");
+
+        updateSummaryLabels();
+
+        // The home currency and every currency with imported rates; changing it reloads everything
+        ChoiceBox<String> currencyBox = new ChoiceBox<>();
+        currencyBox.getItems().add(Transaction.HOME_CURRENCY);
+        transactionManager.getFxRates().getCurrencies().stream().sorted().forEach(currencyBox.getItems()::add);
+        currencyBox.setValue(transactionManager.getReportingCurrency());
+        currencyBox.setOnAction(e -> transactionManager.setReportingCurrency(currencyBox.getValue()));
+        HBox currencyRow = new HBox(10, new Label("Reporting currency:"), currencyBox);
+        currencyRow.setAlignment(Pos.CENTER);
+
+        summaryBox.getChildren().addAll(currencyRow, incomeLabel, expensesLabel, balanceLabel);
+        return summaryBox;
+    }
+
+    // Between full loads the summary comes from the manager's running totals, so this is cheap
+    // on every change; in another currency it takes a scan, so it is read off the FX thread
+    private void updateSummaryLabels() {
+        int request = ++summaryRequest;
+        transactionManager.getFinancialSummaryAsync().whenComplete((summary, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+            } else if (request == summaryRequest) {
+                showSummary(summary);
+            }
+        }));
+    }
+
+    private void showSummary(FinancialSummary summary) {
+        BigDecimal balance = summary.getBalance();
+        String currency = transactionManager.getReportingCurrency();
+
+        incomeLabel.setText("Total Income: " + Money.format(summary.getTotalIncome(), currency));
+        incomeLabel.setStyle(SUMMARY_LABEL_STYLE);
+        expensesLabel.setText("Total Expenses: " + Money.format(summary.getTotalExpenses(), currency));
+        expensesLabel.setStyle(SUMMARY_LABEL_STYLE);
+        balanceLabel.setText("Current Balance: " + Money.format(balance, currency));
 
         // Add color for positive or negative balance
         if (balance.compareTo(BigDecimal.ZERO) > 0) {
-            balanceLabel.setStyle(balanceLabel.getStyle() + " -fx-text-fill: #388E3C;");  // Green for positive balance
+            balanceLabel.setStyle(SUMMARY_LABEL_STYLE + " -fx-text-fill: #388E3C;");  // Green for positive balance
         } else if (balance.compareTo(BigDecimal.ZERO) < 0) {
-            balanceLabel.setStyle(balanceLabel.getStyle() + " -fx-text-fill: #D32F2F;");  // Red for negative balance
+            balanceLabel.setStyle(SUMMARY_LABEL_STYLE + " -fx-text-fill: #D32F2F;");  // Red for negative balance
         } else {
-            balanceLabel.setStyle(balanceLabel.getStyle() + " -fx-text-fill: #1976D2;");  // Blue for zero balance
+            balanceLabel.setStyle(SUMMARY_LABEL_STYLE + " -fx-text-fill: #1976D2;");  // Blue for zero balance
         }
-
-        summaryBox.getChildren().addAll(incomeLabel, expensesLabel, balanceLabel);
-        return summaryBox;
     }
 
-
     private PieChart createExpenseDistributionChart() {
         PieChart pieChart = new PieChart();
         pieChart.setTitle("Expense Categories");
         pieChart.setLabelsVisible(true);
-
-        Map<String, BigDecimal> categoryTotals = transactionManager.getAllTransactions().stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        Transaction::getCategory,
-                        Collectors.reducing(BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add)
-                ));
-
-        categoryTotals.forEach((category, total) ->
-                pieChart.getData().add(new PieChart.Data(
-                        String.format("%s ($%,.2f)", category, total),
-                        total.doubleValue()
-                ))
-        );
-
         return pieChart;
     }
 
-    private LineChart<Number, Number> createTrendChart() {
-        final NumberAxis xAxis = new NumberAxis(1, 12, 1);
+    private LineChart<String, Number> createTrendChart() {
+        final CategoryAxis xAxis = new CategoryAxis();
         final NumberAxis yAxis = new NumberAxis();
-        xAxis.setLabel("Month");
-        yAxis.setLabel("Amount ($)");
+        xAxis.setLabel("Period");
+        // Labelled with the reporting currency each time the chart is filled
+        yAxis.setLabel("Amount");
+
+        LineChart<String, Number> lineChart = new LineChart<>(xAxis, yAxis);
+        lineChart.setTitle("Income vs Expenses");
+        lineChart.setAnimated(false);
+        return lineChart;
+    }
+
+    // One background call reads every figure; the summary and both charts are filled
+    // from its result
+    private void loadChartData() {
+        loadsInFlight++;
+        TrendGranularity requested = granularity;
+        LocalDate from = viewFrom;
+        LocalDate to = viewTo;
+
+        transactionManager.submitRead(() -> {
+            LocalDate start = from;
+            LocalDate end = to;
+            if (start == null || end == null) {
+                // Default view: everything by year, or the most recent months or days
+                LocalDate[] range = transactionManager.getDateRange();
+                end = range == null ? LocalDate.now() : range[1];
+                start = switch (requested) {
+                    case YEAR -> range == null ? end : range[0];
+                    case MONTH -> end.minusMonths(DEFAULT_MONTHS - 1);
+                    case DAY -> end.minusDays(DEFAULT_DAYS - 1);
+                };
+            }
+            return transactionManager.getDashboardFigures(requested, requested.bucketStart(start), end);
+        }).whenComplete((figures, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+            } else {
+                summaryRequest++;
+                showSummary(figures.getSummary());
+                populateExpenseChart(figures.getExpenseCategoryTotals());
+                // A zoom since this load started has its own load coming
+                if (figures.getGranularity() == granularity) {
+                    populateTrendChart(figures);
+                }
+            }
+            chartLoadFinished();
+        }));
+    }
+
+    private void zoomTo(TrendGranularity newGranularity, LocalDate from, LocalDate to) {
+        granularity = newGranularity;
+        viewFrom = from;
+        viewTo = to;
+        granularityBox.setValue(newGranularity);
+        loadChartData();
+    }
+
+    private void chartLoadFinished() {
+        loadsInFlight--;
+        if (loadsInFlight == 0 && reloadNeeded) {
+            reloadNeeded = false;
+            loadChartData();
+        }
+    }
 
-        LineChart<Number, Number> lineChart = new LineChart<>(xAxis, yAxis);
-        lineChart.setTitle("Income vs Expenses by Month");
+    private void populateExpenseChart(Map<String, BigDecimal> totals) {
+        categoryTotals.clear();
+        expenseSlices.clear();
+        expenseChart.getData().clear();
+        totals.forEach(this::setCategoryTotal);
+    }
 
-        XYChart.Series<Number, Number> incomeSeries = new XYChart.Series<>();
+    private void populateTrendChart(DashboardFigures view) {
+        viewFrom = view.getFrom();
+        viewTo = view.getTo();
+
+        XYChart.Series<String, Number> incomeSeries = new XYChart.Series<>();
         incomeSeries.setName("Income");
-        XYChart.Series<Number, Number> expenseSeries = new XYChart.Series<>();
+        XYChart.Series<String, Number> expenseSeries = new XYChart.Series<>();
         expenseSeries.setName("Expenses");
 
-        Map<Integer, BigDecimal> monthlyIncome = transactionManager.getAllTransactions().stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .collect(Collectors.groupingBy(
-                        t -> t.getDate().getMonthValue(),
-                        Collectors.reducing(BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add)
-                ));
-
-        Map<Integer, BigDecimal> monthlyExpenses = transactionManager.getAllTransactions().stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .collect(Collectors.groupingBy(
-                        t -> t.getDate().getMonthValue(),
-                        Collectors.reducing(BigDecimal.ZERO,
-                                Transaction::getAmount,
-                                BigDecimal::add)
-                ));
-
-        // Add data points for each month
-        for (int month = 1; month <= 12; month++) {
-            incomeSeries.getData().add(new XYChart.Data<>(
-                    month,
-                    monthlyIncome.getOrDefault(month, BigDecimal.ZERO).doubleValue()
-            ));
-            expenseSeries.getData().add(new XYChart.Data<>(
-                    month,
-                    monthlyExpenses.getOrDefault(month, BigDecimal.ZERO).doubleValue()
-            ));
-        }
-
-        lineChart.getData().addAll(incomeSeries, expenseSeries);
-        return lineChart;
+        Map<LocalDate, TrendPoint> byBucket = new HashMap<>();
+        for (TrendPoint point : view.getTrend()) {
+            byBucket.put(point.getBucketStart(), point);
+        }
+
+        bucketTotals.clear();
+        trendPoints.clear();
+        for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+            bucketTotals.put(type, new HashMap<>());
+            trendPoints.put(type, new HashMap<>());
+        }
+
+        // One point per bucket in the view, including empty ones, so the timeline has no gaps
+        for (LocalDate bucket = view.getFrom(); !bucket.isAfter(view.getTo()); bucket = granularity.nextBucket(bucket)) {
+            TrendPoint point = byBucket.get(bucket);
+            addTrendPoint(incomeSeries, Transaction.TransactionType.INCOME, bucket,
+                    point == null ? BigDecimal.ZERO : point.getIncome());
+            addTrendPoint(expenseSeries, Transaction.TransactionType.EXPENSE, bucket,
+                    point == null ? BigDecimal.ZERO : point.getExpenses());
+        }
+
+        trendChart.getData().clear();
+        trendChart.getData().addAll(incomeSeries, expenseSeries);
+        trendChart.getYAxis().setLabel("Amount (" + Money.symbol(transactionManager.getReportingCurrency()) + ")");
+
+        // Clicking a year shows its months, clicking a month shows its days
+        if (granularity != TrendGranularity.DAY) {
+            for (XYChart.Series<String, Number> series : trendChart.getData()) {
+                for (XYChart.Data<String, Number> data : series.getData()) {
+                    LocalDate bucket = (LocalDate) data.getExtraValue();
+                    if (data.getNode() != null) {
+                        data.getNode().setOnMouseClicked(e -> zoomInto(bucket));
+                    }
+                }
+            }
+        }
     }
 
-    private BigDecimal getTotalIncome() {
-        return transactionManager.getAllTransactions().stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.INCOME)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private void addTrendPoint(XYChart.Series<String, Number> series, Transaction.TransactionType type,
+                               LocalDate bucket, BigDecimal total) {
+        XYChart.Data<String, Number> data = new XYChart.Data<>(granularity.label(bucket), total.doubleValue(), bucket);
+        series.getData().add(data);
+        bucketTotals.get(type).put(bucket, total);
+        trendPoints.get(type).put(bucket, data);
     }
 
-    private BigDecimal getTotalExpenses() {
-        return transactionManager.getAllTransactions().stream()
-                .filter(t -> t.getType() == Transaction.TransactionType.EXPENSE)
-                .map(Transaction::getAmount)
-                .reduce(BigDecimal.ZERO, BigDecimal::add);
+    private void zoomInto(LocalDate bucket) {
+        if (granularity == TrendGranularity.YEAR) {
+            zoomTo(TrendGranularity.MONTH, bucket, bucket.plusYears(1).minusDays(1));
+        } else if (granularity == TrendGranularity.MONTH) {
+            zoomTo(TrendGranularity.DAY, bucket, bucket.plusMonths(1).minusDays(1));
+        }
     }
 
-    @Override
-    public void onTransactionAdded(Transaction transaction) {
-        Platform.runLater(this::updateDashboard);
+    // Creates, updates or removes the single pie slice for a category
+    private void setCategoryTotal(String category, BigDecimal total) {
+        PieChart.Data slice = expenseSlices.get(category);
+        if (total.signum() <= 0) {
+            categoryTotals.remove(category);
+            if (slice != null) {
+                expenseSlices.remove(category);
+                expenseChart.getData().remove(slice);
+            }
+            return;
+        }
+
+        categoryTotals.put(category, total);
+        String label = String.format("%s (%s)", category, Money.format(total, transactionManager.getReportingCurrency()));
+        if (slice == null) {
+            slice = new PieChart.Data(label, total.doubleValue());
+            expenseSlices.put(category, slice);
+            expenseChart.getData().add(slice);
+        } else {
+            slice.setName(label);
+            slice.setPieValue(total.doubleValue());
+        }
+    }
+
+    // Applies one added (sign 1) or removed (sign -1) row to the slice and trend point it touches
+    private void applyDelta(Transaction transaction, int sign) {
+        BigDecimal amount = sign > 0 ? transaction.getAmount() : transaction.getAmount().negate();
+
+        if (transaction.getType() == Transaction.TransactionType.EXPENSE) {
+            String category = transaction.getCategory();
+            setCategoryTotal(category, categoryTotals.getOrDefault(category, BigDecimal.ZERO).add(amount));
+        }
+
+        // Only rows inside the visible range have a point to patch
+        LocalDate bucket = granularity.bucketStart(transaction.getDate());
+        Map<LocalDate, XYChart.Data<String, Number>> points = trendPoints.get(transaction.getType());
+        XYChart.Data<String, Number> point = points == null ? null : points.get(bucket);
+        if (point != null) {
+            Map<LocalDate, BigDecimal> totals = bucketTotals.get(transaction.getType());
+            BigDecimal total = totals.get(bucket).add(amount);
+            totals.put(bucket, total);
+            point.setYValue(total.doubleValue());
+        }
     }
 
     @Override
-    public void onTransactionRemoved(Transaction transaction) {
-        Platform.runLater(this::updateDashboard);
+    public void onTransactionsChanged(TransactionChangeSet changes) {
+        Platform.runLater(() -> updateDashboard(changes));
     }
 
-    private void updateDashboard() {
-        // Clear existing data
-        expenseChart.getData().clear();
-        trendChart.getData().clear();
+    private void updateDashboard(TransactionChangeSet changes) {
+        // The summary comes from the running totals and the budgets from memory
+        updateSummaryLabels();
+        refreshBudgets();
 
-        // Recreate charts with updated data
-        PieChart newExpenseChart = createExpenseDistributionChart();
-        expenseChart.getData().addAll(newExpenseChart.getData());
+        // Rows in another currency than the figures are converted by the full load
+        if (changes.isBulk() || inOtherCurrency(changes)) {
+            loadChartData();
+            return;
+        }
+        if (loadsInFlight > 0) {
+            reloadNeeded = true;
+            return;
+        }
 
-        LineChart<Number, Number> newTrendChart = createTrendChart();
-        trendChart.getData().addAll(newTrendChart.getData());
+        // Patch only the slices and points the changed rows touch
+        for (Transaction transaction : changes.getAdded()) {
+            applyDelta(transaction, 1);
+        }
+        for (Transaction transaction : changes.getRemoved()) {
+            applyDelta(transaction, -1);
+        }
+    }
 
-        // Update summary box
-        VBox summaryBox = createFinancialSummaryBox();
-        getChildren().set(1, summaryBox);
+    private boolean inOtherCurrency(TransactionChangeSet changes) {
+        String currency = transactionManager.getReportingCurrency();
+        for (List<Transaction> rows : List.of(changes.getAdded(), changes.getRemoved())) {
+            for (Transaction transaction : rows) {
+                if (!transaction.getCurrency().equals(currency)) {
+                    return true;
+                }
+            }
+        }
+        return false;
     }
-}
\ No newline at end of file
+}
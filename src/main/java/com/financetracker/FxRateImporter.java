@@ -0,0 +1,92 @@
+package com.financetracker;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+// Streams a CSV file of daily exchange rates into TransactionManager.importFxRates.
+// Expected columns: date,currency,rate (header row optional), where rate is what one
+// unit of the currency was worth in the home currency on that date.
+public class FxRateImporter {
+    private final TransactionManager transactionManager;
+
+    public FxRateImporter(TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    public int importFile(Path path) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            return transactionManager.importFxRates(new LineIterator(reader));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static class LineIterator implements Iterator<FxRateTable.Rate> {
+        private final BufferedReader reader;
+        private FxRateTable.Rate next;
+        private int lineNumber;
+
+        LineIterator(BufferedReader reader) {
+            this.reader = reader;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (next != null) {
+                return true;
+            }
+            try {
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lineNumber++;
+                    if (line.isBlank() || (lineNumber == 1 && line.toLowerCase().startsWith("date,"))) {
+                        continue;
+                    }
+                    next = parse(line, lineNumber);
+                    return true;
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public FxRateTable.Rate next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            FxRateTable.Rate rate = next;
+            next = null;
+            return rate;
+        }
+    }
+
+    static FxRateTable.Rate parse(String line, int lineNumber) {
+        List<String> fields = CsvTransactionImporter.splitLine(line);
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": expected 3 fields but found " + fields.size());
+        }
+        try {
+            String currency = Transaction.normalizeCurrency(fields.get(1));
+            if (currency.equals(Transaction.HOME_CURRENCY)) {
+                throw new IllegalArgumentException(currency + " is the home currency, always 1");
+            }
+            double rate = Double.parseDouble(fields.get(2).trim());
+            if (!(rate > 0) || Double.isInfinite(rate)) {
+                throw new IllegalArgumentException("Rate must be a positive number: " + fields.get(2).trim());
+            }
+            return new FxRateTable.Rate(LocalDate.parse(fields.get(0).trim()), currency, rate);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage());
+        }
+    }
+}
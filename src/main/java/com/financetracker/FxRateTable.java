@@ -0,0 +1,193 @@
+package com.financetracker;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Daily exchange rates from fx_rates, held as one double[] per currency indexed by days
+// since the first rated day, each rate being what one unit was worth in the home currency.
+// Days with no rate take the last rate before them, or the first one if there is none
+// before, and days outside the table take the rate at its nearer end, so looking a rate
+// up is one array index: no search, no map, no boxing. The home currency is 1.0 on every
+// day and has no array. Immutable: TransactionManager swaps in a new table after an import.
+public class FxRateTable {
+    static final FxRateTable EMPTY = new FxRateTable(0, 0, Map.of());
+
+    static final String LOAD_SQL = "SELECT currency, day, rate FROM fx_rates";
+    private static final String RANGE_SQL = "SELECT MIN(day), MAX(day) FROM fx_rates";
+
+    // One line of a rate file: one unit of currency was worth rate units of the home currency
+    public record Rate(LocalDate date, String currency, double rate) {
+    }
+
+    private final int firstDay;
+    private final int dayCount;
+    private final Map<String, double[]> rates;
+
+    private FxRateTable(int firstDay, int dayCount, Map<String, double[]> rates) {
+        this.firstDay = firstDay;
+        this.dayCount = dayCount;
+        this.rates = rates;
+    }
+
+    static FxRateTable load(PooledConnection connection) throws SQLException {
+        int firstDay;
+        int dayCount;
+        try (ResultSet rs = connection.prepare(RANGE_SQL).executeQuery()) {
+            firstDay = rs.getInt(1);
+            if (rs.wasNull()) {
+                return EMPTY;
+            }
+            dayCount = rs.getInt(2) - firstDay + 1;
+        }
+
+        Map<String, double[]> rates = new HashMap<>();
+        try (ResultSet rs = connection.prepare(LOAD_SQL).executeQuery()) {
+            while (rs.next()) {
+                double[] days = rates.computeIfAbsent(rs.getString(1), currency -> {
+                    double[] unset = new double[dayCount];
+                    Arrays.fill(unset, Double.NaN);
+                    return unset;
+                });
+                days[rs.getInt(2) - firstDay] = rs.getDouble(3);
+            }
+        }
+        for (double[] days : rates.values()) {
+            fillGaps(days);
+        }
+        return new FxRateTable(firstDay, dayCount, rates);
+    }
+
+    // Carries each rate forward over the days after it, and the first one back
+    private static void fillGaps(double[] days) {
+        double last = Double.NaN;
+        int firstRated = -1;
+        for (int day = 0; day < days.length; day++) {
+            if (Double.isNaN(days[day])) {
+                days[day] = last;
+            } else {
+                last = days[day];
+                if (firstRated < 0) {
+                    firstRated = day;
+                }
+            }
+        }
+        Arrays.fill(days, 0, firstRated, days[firstRated]);
+    }
+
+    public boolean isEmpty() {
+        return rates.isEmpty();
+    }
+
+    // Every currency with rates, not counting the home currency
+    public Set<String> getCurrencies() {
+        return rates.keySet();
+    }
+
+    // Whether amounts in the currency can be converted
+    public boolean hasRates(String currency) {
+        return currency.equals(Transaction.HOME_CURRENCY) || rates.containsKey(currency);
+    }
+
+    // First and last days with a rate, or null when there are none
+    public LocalDate getFirstDay() {
+        return rates.isEmpty() ? null : LocalDate.ofEpochDay(firstDay);
+    }
+
+    public LocalDate getLastDay() {
+        return rates.isEmpty() ? null : LocalDate.ofEpochDay(firstDay + dayCount - 1L);
+    }
+
+    // What one unit of the currency was worth in the home currency on a day
+    public double rate(String currency, LocalDate date) {
+        double[] days = ratesOf(currency);
+        return days == null ? 1.0 : days[dayIndex((int) date.toEpochDay())];
+    }
+
+    // An amount in the currency on a day as home-currency cents, rounded as Converter does
+    public long toHomeCents(long cents, String currency, LocalDate date) {
+        double[] days = ratesOf(currency);
+        return days == null ? cents : Math.round(cents * days[dayIndex((int) date.toEpochDay())]);
+    }
+
+    // Converts amounts in the given currencies, identified by their position in the list,
+    // to the target currency. Throws if any of them, or the target, has no rates.
+    public Converter converter(String target, List<String> currencies) {
+        double[][] factors = new double[currencies.size()][];
+        for (int code = 0; code < factors.length; code++) {
+            String currency = currencies.get(code);
+            if (!currency.equals(target)) {
+                factors[code] = factors(currency, target);
+            }
+        }
+        return new Converter(firstDay, factors);
+    }
+
+    // Units of one currency per unit of another, for every day of the table
+    private double[] factors(String from, String to) {
+        double[] fromRates = ratesOf(from);
+        double[] toRates = ratesOf(to);
+        double[] factors = new double[dayCount];
+        for (int day = 0; day < dayCount; day++) {
+            factors[day] = (fromRates == null ? 1.0 : fromRates[day]) / (toRates == null ? 1.0 : toRates[day]);
+        }
+        return factors;
+    }
+
+    // null for the home currency
+    private double[] ratesOf(String currency) {
+        if (currency.equals(Transaction.HOME_CURRENCY)) {
+            return null;
+        }
+        double[] days = rates.get(currency);
+        if (days == null) {
+            throw new IllegalStateException("No exchange rates for " + currency);
+        }
+        return days;
+    }
+
+    private int dayIndex(int epochDay) {
+        return Math.max(0, Math.min(epochDay - firstDay, dayCount - 1));
+    }
+
+    // Per-row conversion for aggregation scans: an array lookup and a multiply, or nothing
+    // at all for rows already in the target currency
+    public static final class Converter {
+        private final int firstDay;
+        private final double[][] factors;  // by currency code; null where nothing changes
+
+        private Converter(int firstDay, double[][] factors) {
+            this.firstDay = firstDay;
+            this.factors = factors;
+        }
+
+        // Whether every currency is the target, so amounts can be summed as they are
+        public boolean isIdentity() {
+            for (double[] days : factors) {
+                if (days != null) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        public long convert(long cents, int currencyCode, int epochDay) {
+            double[] days = factors[currencyCode];
+            if (days == null) {
+                return cents;
+            }
+            int day = epochDay - firstDay;
+            if (day < 0) {
+                day = 0;
+            } else if (day >= days.length) {
+                day = days.length - 1;
+            }
+            return Math.round(cents * days[day]);
+        }
+    }
+}
@@ -0,0 +1,391 @@
+package com.financetracker;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+// TransactionStore over an append-only log of fixed-width records in a memory-mapped
+// file. Adding a row writes one record at the end of the mapping; removing one appends
+// a tombstone, so no write ever touches earlier bytes. Each record ends with a CRC32:
+// on open the log is read up to the first empty or damaged record, which drops a write
+// torn by a crash. Dead records are squeezed out by compact(), which writes the live
+// rows to a new file and moves it over the old one, so a crash mid-way leaves the old
+// log intact. Nothing is indexed or aggregated; it is meant for fast bulk ingest.
+//
+// Layout: a 32-byte header (magic, version, record size, next id) and then 256-byte
+// records: kind, type, id, epoch day, cents, the ISO currency code as 3 ASCII bytes,
+// description, account and category as length-prefixed UTF-8, CRC32 of everything
+// before it. Descriptions may take up to 150 bytes, accounts up to 30 and categories up
+// to 42; longer ones are rejected rather than cut. Version 1 had no currency or account
+// and is not read.
+public class JournalTransactionStore implements TransactionStore {
+    private static final int MAGIC = 0x46544A31; // "FTJ1"
+    private static final int VERSION = 2;
+    static final int HEADER_SIZE = 32;
+    static final int RECORD_SIZE = 256;
+
+    private static final int NEXT_ID_OFFSET = 12;
+
+    private static final byte KIND_ADD = 1;
+    private static final byte KIND_TOMBSTONE = 2;
+
+    // Offsets within a record
+    private static final int KIND = 0;
+    private static final int TYPE = 1;
+    private static final int ID = 4;
+    private static final int DAY = 8;
+    private static final int CENTS = 12;
+    private static final int CURRENCY = 20;
+    private static final int DESCRIPTION = 24;
+    private static final int ACCOUNT = 176;
+    private static final int CATEGORY = 208;
+    private static final int CRC = RECORD_SIZE - Integer.BYTES;
+    private static final int CURRENCY_BYTES = 3;
+    static final int MAX_DESCRIPTION_BYTES = ACCOUNT - DESCRIPTION - Short.BYTES;
+    static final int MAX_ACCOUNT_BYTES = CATEGORY - ACCOUNT - Short.BYTES;
+    static final int MAX_CATEGORY_BYTES = CRC - CATEGORY - Short.BYTES;
+
+    private static final int INITIAL_RECORDS = 4096;
+    private static final ByteBuffer ZEROS = ByteBuffer.allocate(64 * 1024).asReadOnlyBuffer();
+    // A single mapping is limited to 2 GB
+    private static final long MAX_FILE_SIZE = Integer.MAX_VALUE;
+    // Compacts automatically once dead records outnumber live ones beyond this many
+    private static final int MIN_COMPACT_RECORDS = 4096;
+
+    private final Path path;
+    private final CRC32 crc = new CRC32();
+    private final byte[] recordBytes = new byte[RECORD_SIZE];
+
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int recordCount;   // records in the log, adds and tombstones
+    private int nextId;
+    private final BitSet live = new BitSet();
+    private int liveCount;
+
+    public JournalTransactionStore(Path path) {
+        this.path = path;
+        try {
+            open();
+        } catch (IOException e) {
+            throw new RuntimeException("Error opening journal: " + e.getMessage());
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long size = channel.size();
+        if (size == 0) {
+            map(HEADER_SIZE + (long) INITIAL_RECORDS * RECORD_SIZE);
+            buffer.putInt(0, MAGIC);
+            buffer.putInt(4, VERSION);
+            buffer.putInt(8, RECORD_SIZE);
+            buffer.putInt(NEXT_ID_OFFSET, 1);
+            buffer.force();
+        } else {
+            if (size < HEADER_SIZE) {
+                throw new IOException(path + " is not a transaction journal");
+            }
+            map(size);
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(8) != RECORD_SIZE) {
+                channel.close();
+                throw new IOException(path + " is not a transaction journal");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                int version = buffer.getInt(4);
+                channel.close();
+                throw new IOException(path + " is a version " + version + " journal, expected " + VERSION);
+            }
+        }
+        replay();
+    }
+
+    private void map(long size) throws IOException {
+        if (size > MAX_FILE_SIZE) {
+            throw new IOException("Journal is full: " + path);
+        }
+        MappedByteBuffer previous = buffer;
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        // Growing maps the file again; the old mapping would otherwise pin it until collected
+        if (previous != null) {
+            unmap(previous);
+        }
+    }
+
+    // Rebuilds the live set from the log, stopping at the first empty or damaged record
+    private void replay() {
+        nextId = buffer.getInt(NEXT_ID_OFFSET);
+        recordCount = 0;
+        live.clear();
+        liveCount = 0;
+        int capacity = (buffer.capacity() - HEADER_SIZE) / RECORD_SIZE;
+        while (recordCount < capacity) {
+            int offset = offsetOf(recordCount);
+            byte kind = buffer.get(offset + KIND);
+            if ((kind != KIND_ADD && kind != KIND_TOMBSTONE) || !checksumMatches(offset)) {
+                break;
+            }
+            int id = buffer.getInt(offset + ID);
+            if (kind == KIND_ADD) {
+                live.set(id);
+                liveCount++;
+                nextId = Math.max(nextId, id + 1);
+            } else if (live.get(id)) {
+                live.clear(id);
+                liveCount--;
+            }
+            recordCount++;
+        }
+        // Anything after the last good record is left over from a torn write. Clear all of
+        // it, not just the damaged slot: an older record further on could still pass its
+        // checksum and be read back once new appends close the gap.
+        clearFrom(offsetOf(recordCount));
+    }
+
+    private static int offsetOf(int record) {
+        return HEADER_SIZE + record * RECORD_SIZE;
+    }
+
+    private boolean checksumMatches(int offset) {
+        buffer.get(offset, recordBytes, 0, CRC);
+        crc.reset();
+        crc.update(recordBytes, 0, CRC);
+        return (int) crc.getValue() == buffer.getInt(offset + CRC);
+    }
+
+    // Zeroes the mapping from offset to its end, skipping chunks that are already zero
+    // so the untouched tail of a grown file is only read, not dirtied
+    private void clearFrom(int offset) {
+        int end = buffer.capacity();
+        while (offset < end) {
+            int length = Math.min(ZEROS.capacity(), end - offset);
+            if (buffer.slice(offset, length).mismatch(ZEROS.slice(0, length)) >= 0) {
+                buffer.put(offset, ZEROS, 0, length);
+            }
+            offset += length;
+        }
+    }
+
+    @Override
+    public synchronized int add(Transaction transaction) {
+        byte[] description = encode(transaction.getDescription(), MAX_DESCRIPTION_BYTES, "Description");
+        byte[] account = encode(transaction.getAccount(), MAX_ACCOUNT_BYTES, "Account");
+        byte[] category = encode(transaction.getCategory(), MAX_CATEGORY_BYTES, "Category");
+        int id = nextId;
+        Arrays.fill(recordBytes, (byte) 0);
+        ByteBuffer record = ByteBuffer.wrap(recordBytes);
+        record.put(KIND, KIND_ADD)
+                .put(TYPE, (byte) transaction.getType().ordinal())
+                .putInt(ID, id)
+                .putInt(DAY, (int) transaction.getDate().toEpochDay())
+                .putLong(CENTS, Money.toCents(transaction.getAmount()))
+                .put(CURRENCY, transaction.getCurrency().getBytes(StandardCharsets.US_ASCII));
+        putString(record, DESCRIPTION, description);
+        putString(record, ACCOUNT, account);
+        putString(record, CATEGORY, category);
+        append();
+        nextId++;
+        live.set(id);
+        liveCount++;
+        return id;
+    }
+
+    @Override
+    public synchronized int addAll(Iterator<Transaction> transactions) {
+        int added = 0;
+        while (transactions.hasNext()) {
+            add(transactions.next());
+            added++;
+        }
+        return added;
+    }
+
+    @Override
+    public synchronized boolean remove(int id) {
+        if (id < 0 || !live.get(id)) {
+            return false;
+        }
+        Arrays.fill(recordBytes, (byte) 0);
+        ByteBuffer record = ByteBuffer.wrap(recordBytes);
+        record.put(KIND, KIND_TOMBSTONE).putInt(ID, id);
+        append();
+        live.clear(id);
+        liveCount--;
+
+        int dead = recordCount - liveCount;
+        if (dead >= MIN_COMPACT_RECORDS && dead > liveCount) {
+            compact();
+        }
+        return true;
+    }
+
+    // Writes recordBytes as the next record, checksum included
+    private void append() {
+        try {
+            if (offsetOf(recordCount) + (long) RECORD_SIZE > buffer.capacity()) {
+                map(HEADER_SIZE + (long) (buffer.capacity() - HEADER_SIZE) * 2);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error growing journal: " + e.getMessage());
+        }
+        crc.reset();
+        crc.update(recordBytes, 0, CRC);
+        ByteBuffer.wrap(recordBytes).putInt(CRC, (int) crc.getValue());
+        buffer.put(offsetOf(recordCount), recordBytes);
+        recordCount++;
+    }
+
+    private static byte[] encode(String text, int maxBytes, String field) {
+        if (text == null) {
+            return null;
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > maxBytes) {
+            throw new IllegalArgumentException(field + " is longer than " + maxBytes + " bytes: " + text);
+        }
+        return bytes;
+    }
+
+    // A length of -1 stands for null
+    private static void putString(ByteBuffer record, int offset, byte[] bytes) {
+        record.putShort(offset, (short) (bytes == null ? -1 : bytes.length));
+        if (bytes != null) {
+            record.put(offset + Short.BYTES, bytes);
+        }
+    }
+
+    private String getString(int offset) {
+        short length = buffer.getShort(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + Short.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public synchronized int count() {
+        return liveCount;
+    }
+
+    // Ids only grow, so the log's order is id order
+    @Override
+    public synchronized void forEach(Consumer<Transaction> action) {
+        for (int record = 0; record < recordCount; record++) {
+            int offset = offsetOf(record);
+            if (buffer.get(offset + KIND) == KIND_ADD && live.get(buffer.getInt(offset + ID))) {
+                action.accept(read(offset));
+            }
+        }
+    }
+
+    private Transaction read(int offset) {
+        return new Transaction(
+                buffer.getInt(offset + ID),
+                LocalDate.ofEpochDay(buffer.getInt(offset + DAY)),
+                getString(offset + DESCRIPTION),
+                Money.fromCents(buffer.getLong(offset + CENTS)),
+                getString(offset + CATEGORY),
+                Transaction.TransactionType.values()[buffer.get(offset + TYPE)],
+                getString(offset + ACCOUNT),
+                getCurrency(offset + CURRENCY)
+        );
+    }
+
+    private String getCurrency(int offset) {
+        byte[] bytes = new byte[CURRENCY_BYTES];
+        buffer.get(offset, bytes);
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+
+    // Number of records in the log, dead ones included
+    public synchronized int recordCount() {
+        return recordCount;
+    }
+
+    // Flushes the mapping to disk; appends are only durable once this or close() returns
+    public synchronized void sync() {
+        buffer.force();
+    }
+
+    // Rewrites the log with only the live rows. The new file is complete and flushed
+    // before it replaces the old one, so a crash at any point leaves one whole log.
+    @Override
+    public synchronized void compact() {
+        Path compacted = path.resolveSibling(path.getFileName() + ".compact");
+        try {
+            long size = HEADER_SIZE + (long) Math.max(liveCount * 2, INITIAL_RECORDS) * RECORD_SIZE;
+            try (FileChannel target = FileChannel.open(compacted, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                MappedByteBuffer out = target.map(FileChannel.MapMode.READ_WRITE, 0, Math.min(size, MAX_FILE_SIZE));
+                out.put(0, buffer, 0, NEXT_ID_OFFSET);
+                // Keeps ids of removed rows from coming back after the log forgets them
+                out.putInt(NEXT_ID_OFFSET, nextId);
+                int written = 0;
+                for (int record = 0; record < recordCount; record++) {
+                    int offset = offsetOf(record);
+                    if (buffer.get(offset + KIND) == KIND_ADD && live.get(buffer.getInt(offset + ID))) {
+                        out.put(offsetOf(written++), buffer, offset, RECORD_SIZE);
+                    }
+                }
+                out.force();
+                unmap(out);
+            }
+            buffer.force();
+            channel.close();
+            // A file that is still mapped cannot be replaced on Windows
+            unmap(buffer);
+            buffer = null;
+            try {
+                Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                // The new log, or the old one still in place if the move failed
+                open();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error compacting journal: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        try {
+            if (channel.isOpen()) {
+                buffer.force();
+                channel.close();
+                unmap(buffer);
+                buffer = null;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error closing journal: " + e.getMessage());
+        }
+    }
+
+    // Releases a mapping now rather than whenever the buffer is garbage collected; the
+    // buffer must not be touched again. If the JDK does not allow it, the collector
+    // still releases it later.
+    private static void unmap(MappedByteBuffer mapped) {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            unsafeClass.getMethod("invokeCleaner", ByteBuffer.class).invoke(theUnsafe.get(null), mapped);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Left to the garbage collector
+        }
+    }
+}
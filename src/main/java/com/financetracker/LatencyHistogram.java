@@ -0,0 +1,60 @@
+package com.financetracker;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+// Lock-free latency histogram with power-of-two microsecond buckets
+public class LatencyHistogram {
+    private static final int BUCKETS = 40;
+
+    private final LongAdder[] buckets = new LongAdder[BUCKETS];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder totalNanos = new LongAdder();
+    private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+    public LatencyHistogram() {
+        for (int i = 0; i < BUCKETS; i++) {
+            buckets[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        long micros = Math.max(0, nanos / 1000);
+        // Bucket i holds values below 2^i microseconds
+        int bucket = Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+        buckets[bucket].increment();
+        count.increment();
+        totalNanos.add(nanos);
+        maxNanos.accumulate(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    // Upper bound, in microseconds, of the bucket holding the given percentile
+    public long percentileMicros(double percentile) {
+        long total = count.sum();
+        if (total == 0) {
+            return 0;
+        }
+        long threshold = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += buckets[i].sum();
+            if (seen >= threshold) {
+                return 1L << i;
+            }
+        }
+        return 1L << (BUCKETS - 1);
+    }
+
+    @Override
+    public String toString() {
+        long total = count.sum();
+        double meanMicros = total == 0 ? 0 : totalNanos.sum() / 1000.0 / total;
+        return String.format("count=%d mean=%.1fus p50<=%dus p90<=%dus p99<=%dus max=%.1fus",
+                total, meanMicros, percentileMicros(50), percentileMicros(90), percentileMicros(99),
+                maxNanos.get() / 1000.0);
+    }
+}
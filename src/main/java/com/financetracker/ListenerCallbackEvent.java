@@ -0,0 +1,26 @@
+package com.financetracker;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+// JFR event for one TransactionListener callback made by the event bus
+@Name("com.financetracker.ListenerCallback")
+@Label("Listener Callback")
+@Category({"Finance Tracker", "Events"})
+@Description("Time a TransactionListener spent handling one change set")
+@StackTrace(false)
+public class ListenerCallbackEvent extends Event {
+
+    @Label("Listener Class")
+    Class<?> listenerClass;
+
+    @Label("Changed Rows")
+    int changedRows;
+
+    @Label("Bulk")
+    boolean bulk;
+}
@@ -5,13 +5,18 @@ import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
+import javafx.scene.control.Alert;
 import javafx.scene.control.Button;
 import javafx.scene.control.Label;
 import javafx.scene.control.TableView;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 
-import java.math.BigDecimal;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
 
 public class Main extends Application implements TransactionListener {
     private TransactionManager transactionManager;
@@ -57,6 +62,24 @@ public class Main extends Application implements TransactionListener {
         }
     }
 
+    @Override
+    public void stop() {
+        if (transactionManager != null) {
+            // Lets the next start show the totals without scanning the ledger
+            try {
+                transactionManager.saveSnapshot();
+            } catch (IOException | RuntimeException e) {
+                e.printStackTrace();
+            }
+            try {
+                Metrics.dump(Paths.get("finance_tracker_metrics.txt"));
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            transactionManager.close();
+        }
+    }
+
     // Create header
 
     private HBox createHeader() {
@@ -130,6 +153,7 @@ public class Main extends Application implements TransactionListener {
         // Create quick action buttons
         Button addTransactionBtn = createActionButton("Add Transaction");
         Button viewTransactionsBtn = createActionButton("View Transactions");
+        Button importCsvBtn = createActionButton("Import CSV");
 
         // Add handlers for buttons
         addTransactionBtn.setOnAction(e -> {
@@ -142,9 +166,11 @@ public class Main extends Application implements TransactionListener {
             transactionsWindow.show();
         });
 
+        importCsvBtn.setOnAction(e -> importCsv());
+
         // Add buttons to the container
         HBox buttonContainer = new HBox(10);
-        buttonContainer.getChildren().addAll(addTransactionBtn, viewTransactionsBtn);
+        buttonContainer.getChildren().addAll(addTransactionBtn, viewTransactionsBtn, importCsvBtn);
 
         quickActions.getChildren().addAll(quickActionsLabel, buttonContainer);
         mainContent.getChildren().addAll(summaryCards, quickActions);
@@ -152,6 +178,39 @@ public class Main extends Application implements TransactionListener {
         return mainContent;
     }
 
+    // Import a CSV bank export in one batch
+    private void importCsv() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Import Transactions");
+        fileChooser.getExtensionFilters().add(new FileChooser.ExtensionFilter("CSV Files", "*.csv"));
+        File file = fileChooser.showOpenDialog(mainLayout.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        // Parse and insert on the database thread; report back on the FX thread
+        transactionManager.submitWrite(() -> {
+            try {
+                return new CsvTransactionImporter(transactionManager).importFile(file.toPath());
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).whenComplete((count, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error");
+                alert.setContentText("Error importing transactions: " + cause.getMessage());
+                alert.showAndWait();
+                return;
+            }
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Import Complete");
+            alert.setContentText(String.format("Imported %,d transactions.", count));
+            alert.showAndWait();
+        }));
+    }
+
     // Transactions View
     private VBox createTransactionsView() {
         VBox transactionsView = new VBox(20);
@@ -171,7 +230,7 @@ public class Main extends Application implements TransactionListener {
         // Make sure the CSS is loaded
         transactionsView.getStylesheets().add(getClass().getResource("/view_transaction_window_styles.css").toExternalForm());
 
-        transactionsView.getChildren().addAll(title, transactionsTable);
+        transactionsView.getChildren().addAll(title, viewTransactionsWindow.getFilterBar(), transactionsTable);
         return transactionsView;
     }
 
@@ -190,28 +249,24 @@ public class Main extends Application implements TransactionListener {
         return settingsView;
     }
 
+    // Read off the FX thread, as converting to another currency takes a scan
     private void refreshFinancialSummary() {
-        FinancialSummary financialSummary = transactionManager.getFinancialSummary();
-        BigDecimal totalIncome = financialSummary.getTotalIncome();
-        BigDecimal totalExpenses = financialSummary.getTotalExpenses();
-        BigDecimal totalBalance = totalIncome.subtract(totalExpenses);
-
-        Platform.runLater(() -> {
+        transactionManager.getFinancialSummaryAsync().whenComplete((financialSummary, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
             // Update labels dynamically
-            balanceLabel.setText(String.format("$%,.2f", totalBalance));
-            incomeLabel.setText(String.format("$%,.2f", totalIncome));
-            expensesLabel.setText(String.format("$%,.2f", totalExpenses));
-        });
+            String currency = transactionManager.getReportingCurrency();
+            balanceLabel.setText(Money.format(financialSummary.getBalance(), currency));
+            incomeLabel.setText(Money.format(financialSummary.getTotalIncome(), currency));
+            expensesLabel.setText(Money.format(financialSummary.getTotalExpenses(), currency));
+        }));
     }
 
     // Implement TransactionListener methods
     @Override
-    public void onTransactionAdded(Transaction transaction) {
-        refreshFinancialSummary();
-    }
-
-    @Override
-    public void onTransactionRemoved(Transaction transaction) {
+    public void onTransactionsChanged(TransactionChangeSet changes) {
         refreshFinancialSummary();
     }
 
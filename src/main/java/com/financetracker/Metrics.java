@@ -0,0 +1,42 @@
+package com.financetracker;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Process-wide counters and latency histograms, dumped to a text file on request.
+// Names are prefixed db.* for TransactionManager calls and listener.* for callbacks.
+public final class Metrics {
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+    private static final Map<String, LatencyHistogram> HISTOGRAMS = new ConcurrentHashMap<>();
+
+    private Metrics() {
+    }
+
+    public static void increment(String name, long delta) {
+        COUNTERS.computeIfAbsent(name, key -> new LongAdder()).add(delta);
+    }
+
+    public static void recordLatency(String name, long nanos) {
+        HISTOGRAMS.computeIfAbsent(name, key -> new LatencyHistogram()).record(nanos);
+    }
+
+    public static void dump(Path file) throws IOException {
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("# Finance Tracker metrics, " + LocalDateTime.now());
+            out.println();
+            out.println("[counters]");
+            new TreeMap<>(COUNTERS).forEach((name, counter) -> out.printf("%s = %d%n", name, counter.sum()));
+            out.println();
+            out.println("[latency]");
+            new TreeMap<>(HISTOGRAMS).forEach((name, histogram) -> out.printf("%s: %s%n", name, histogram));
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.NumberFormat;
+import java.util.Currency;
+
+// Amounts are stored as integer cents; these helpers convert at the edges
+final class Money {
+
+    private Money() {
+    }
+
+    static long toCents(BigDecimal amount) {
+        return amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    static BigDecimal fromCents(long cents) {
+        return BigDecimal.valueOf(cents, 2);
+    }
+
+    // The amount with the currency's symbol and decimals, grouped for the default locale;
+    // a code Java does not know is written out in front of the number instead
+    static String format(BigDecimal amount, String currency) {
+        try {
+            Currency code = Currency.getInstance(currency);
+            NumberFormat format = NumberFormat.getCurrencyInstance();
+            format.setCurrency(code);
+            if (code.getDefaultFractionDigits() >= 0) {
+                format.setMinimumFractionDigits(code.getDefaultFractionDigits());
+                format.setMaximumFractionDigits(code.getDefaultFractionDigits());
+            }
+            return format.format(amount);
+        } catch (IllegalArgumentException e) {
+            return String.format("%s %,.2f", currency, amount);
+        }
+    }
+
+    // The currency's symbol for the default locale, or its code if Java does not know it
+    static String symbol(String currency) {
+        try {
+            return Currency.getInstance(currency).getSymbol();
+        } catch (IllegalArgumentException e) {
+            return currency;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.financetracker;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// In-memory copy of a table of names, such as categories or accounts: normalized name
+// -> id and display name. New names are inserted on the writer connection, so only the
+// write thread adds entries; lookups from other threads go through the same lock.
+public class NameDictionary {
+
+    private record Entry(int id, String name) {
+    }
+
+    private final String loadSql;
+    private final String insertSql;
+    private final Map<String, Entry> byNormalized = new HashMap<>();
+
+    // table has id, name and a unique normalized column
+    NameDictionary(String table) {
+        this.loadSql = "SELECT id, name, normalized FROM " + table;
+        this.insertSql = "INSERT INTO " + table + " (name, normalized) VALUES (?, ?)";
+    }
+
+    // Trimmed and ASCII lower-cased, the same rule migration 6 applied with SQLite's lower()
+    public static String normalize(String name) {
+        String trimmed = name.trim();
+        StringBuilder normalized = new StringBuilder(trimmed.length());
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            normalized.append(c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c);
+        }
+        return normalized.toString();
+    }
+
+    synchronized void load(PooledConnection connection) throws SQLException {
+        byNormalized.clear();
+        try (ResultSet rs = connection.prepare(loadSql).executeQuery()) {
+            while (rs.next()) {
+                byNormalized.put(rs.getString("normalized"), new Entry(rs.getInt("id"), rs.getString("name")));
+            }
+        }
+    }
+
+    // Id for a name, adding it to the table on first use. Must run on the writer connection.
+    synchronized int idFor(PooledConnection writer, String name) throws SQLException {
+        String normalized = normalize(name);
+        Entry entry = byNormalized.get(normalized);
+        if (entry == null) {
+            String displayName = name.trim();
+            PreparedStatement pstmt = writer.prepare(insertSql);
+            pstmt.setString(1, displayName);
+            pstmt.setString(2, normalized);
+            pstmt.executeUpdate();
+            try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                keys.next();
+                entry = new Entry(keys.getInt(1), displayName);
+            }
+            byNormalized.put(normalized, entry);
+        }
+        return entry.id();
+    }
+
+    // The stored spelling for a name, or the trimmed name if it is not known yet
+    public synchronized String displayName(String name) {
+        Entry entry = byNormalized.get(normalize(name));
+        return entry != null ? entry.name() : name.trim();
+    }
+
+    public synchronized List<String> names() {
+        List<String> names = new ArrayList<>(byNormalized.size());
+        for (Entry entry : byNormalized.values()) {
+            names.add(entry.name());
+        }
+        return names;
+    }
+}
@@ -0,0 +1,109 @@
+package com.financetracker;
+
+import javafx.application.Platform;
+import javafx.collections.ObservableListBase;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Read-only list for the transactions table that loads fixed-size pages of a query on demand.
+// Only pages near the one last requested are kept, so memory stays flat. Pages load
+// on the database thread; until a page arrives its rows read as null (blank cells).
+public class PagedTransactionList extends ObservableListBase<Transaction> {
+    static final int PAGE_SIZE = 100;
+    private static final int KEEP_PAGES = 3;       // pages kept on each side of the current one
+    private static final int KEEP_ANCHORS = 1000;  // seek keys kept on each side
+
+    private final TransactionManager transactionManager;
+    private final TransactionQuery query;
+    private final int size;
+    private final Map<Integer, List<Transaction>> pages = new HashMap<>();
+    private final Set<Integer> loading = new HashSet<>();
+    // Last row before each page, so a page can be fetched with a keyset seek
+    private final Map<Integer, Transaction> anchors = new HashMap<>();
+
+    public PagedTransactionList(TransactionManager transactionManager) {
+        this(transactionManager, TransactionQuery.all(), transactionManager.countTransactions(TransactionQuery.all()));
+    }
+
+    // size is the query's row count, counted by the caller off the JavaFX thread
+    public PagedTransactionList(TransactionManager transactionManager, TransactionQuery query, int size) {
+        this.transactionManager = transactionManager;
+        this.query = query;
+        this.size = size;
+    }
+
+    public TransactionQuery getQuery() {
+        return query;
+    }
+
+    @Override
+    public Transaction get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(index);
+        }
+        int pageIndex = index / PAGE_SIZE;
+        List<Transaction> page = pages.get(pageIndex);
+        if (page == null) {
+            requestPage(pageIndex);
+            return null;
+        }
+        int offset = index - pageIndex * PAGE_SIZE;
+        // The ledger may have shrunk since this list was sized; the next refresh replaces it
+        return offset < page.size() ? page.get(offset) : null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    private void requestPage(int pageIndex) {
+        if (!loading.add(pageIndex)) {
+            return;
+        }
+        Transaction known = pageIndex > 0 ? anchors.get(pageIndex) : null;
+
+        transactionManager.submitRead(() -> {
+            Transaction after = known;
+            if (pageIndex > 0 && after == null) {
+                // Jumped past any known page (e.g. dragging the scrollbar): find the key once
+                after = transactionManager.findTransactionAt(query, pageIndex * PAGE_SIZE - 1);
+                if (after == null) {
+                    return List.<Transaction>of();
+                }
+            }
+            return transactionManager.findTransactions(query, after, PAGE_SIZE);
+        }).whenComplete((page, error) -> Platform.runLater(() -> {
+            loading.remove(pageIndex);
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+            pageLoaded(pageIndex, page);
+        }));
+    }
+
+    private void pageLoaded(int pageIndex, List<Transaction> page) {
+        pages.put(pageIndex, page);
+        if (!page.isEmpty()) {
+            anchors.put(pageIndex + 1, page.get(page.size() - 1));
+        }
+
+        // Drop pages and anchors that are far from the viewport
+        pages.keySet().removeIf(p -> Math.abs(p - pageIndex) > KEEP_PAGES);
+        anchors.keySet().removeIf(p -> Math.abs(p - pageIndex) > KEEP_ANCHORS);
+
+        // Tell the table the placeholder rows of this page now have data
+        int from = pageIndex * PAGE_SIZE;
+        int to = Math.min(from + PAGE_SIZE, size);
+        beginChange();
+        for (int i = from; i < to; i++) {
+            nextSet(i, null);
+        }
+        endChange();
+    }
+}
@@ -0,0 +1,48 @@
+package com.financetracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+
+// A connection plus its cache of prepared statements. It is only ever used by the
+// thread that checked it out of Database, so the cache needs no locking.
+public class PooledConnection {
+    private final Connection connection;
+    private final Map<String, PreparedStatement> statements = new HashMap<>();
+
+    PooledConnection(Connection connection) {
+        this.connection = connection;
+    }
+
+    public Connection getConnection() {
+        return connection;
+    }
+
+    // Returns the cached statement for this SQL, preparing it on first use. Callers close
+    // their ResultSets but never the statement itself.
+    public PreparedStatement prepare(String sql) throws SQLException {
+        PreparedStatement statement = statements.get(sql);
+        if (statement == null) {
+            statement = connection.prepareStatement(sql);
+            statements.put(sql, statement);
+        } else {
+            statement.clearParameters();
+        }
+        return statement;
+    }
+
+    // Closes the cached statements; VACUUM, for one, will not run while any are open
+    void clearStatements() throws SQLException {
+        for (PreparedStatement statement : statements.values()) {
+            statement.close();
+        }
+        statements.clear();
+    }
+
+    void close() throws SQLException {
+        clearStatements();
+        connection.close();
+    }
+}
@@ -0,0 +1,140 @@
+package com.financetracker;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// Autocomplete index: a character trie where every node also keeps its most used
+// completions, so complete() walks the prefix and copies that list out, which is
+// O(prefix length) whatever the number of terms. Matching ignores case; each term is
+// returned with the spelling it was first added with.
+public class PrefixTrie {
+    static final int TOP_K = 8;
+    // Longer terms are only indexed up to this many characters
+    private static final int MAX_INDEXED_LENGTH = 40;
+
+    private static final class Term {
+        final String text;
+        int weight;
+
+        Term(String text) {
+            this.text = text;
+        }
+    }
+
+    // Children are kept in parallel sorted arrays, far smaller than a map per node
+    private static final class Node {
+        char[] keys = new char[0];
+        Node[] children = new Node[0];
+        Term[] top = new Term[0];
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, key);
+            if (index >= 0) {
+                return children[index];
+            }
+            int insertAt = -index - 1;
+            Node node = new Node();
+            char[] newKeys = new char[keys.length + 1];
+            Node[] newChildren = new Node[children.length + 1];
+            System.arraycopy(keys, 0, newKeys, 0, insertAt);
+            System.arraycopy(children, 0, newChildren, 0, insertAt);
+            newKeys[insertAt] = key;
+            newChildren[insertAt] = node;
+            System.arraycopy(keys, insertAt, newKeys, insertAt + 1, keys.length - insertAt);
+            System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+            keys = newKeys;
+            children = newChildren;
+            return node;
+        }
+
+        // Weights only grow, so a term that was pushed out never needs to come back on its own
+        void offer(Term term) {
+            for (Term existing : top) {
+                if (existing == term) {
+                    sortTop();
+                    return;
+                }
+            }
+            if (top.length < TOP_K) {
+                top = Arrays.copyOf(top, top.length + 1);
+                top[top.length - 1] = term;
+            } else if (term.weight > top[top.length - 1].weight) {
+                top[top.length - 1] = term;
+            } else {
+                return;
+            }
+            sortTop();
+        }
+
+        private void sortTop() {
+            Arrays.sort(top, (a, b) -> Integer.compare(b.weight, a.weight));
+        }
+    }
+
+    private final Node root = new Node();
+    private final Map<String, Term> terms = new HashMap<>();
+
+    private static String key(String text) {
+        String key = text.trim().toLowerCase(Locale.ROOT);
+        return key.length() > MAX_INDEXED_LENGTH ? key.substring(0, MAX_INDEXED_LENGTH) : key;
+    }
+
+    // Adds a term, or raises its weight if it is already present
+    public synchronized void add(String text, int weight) {
+        String trimmed = text.trim();
+        if (trimmed.isEmpty()) {
+            return;
+        }
+        String key = key(trimmed);
+        Term term = terms.get(key);
+        if (term == null) {
+            term = new Term(trimmed);
+            terms.put(key, term);
+        }
+        term.weight += weight;
+
+        Node node = root;
+        node.offer(term);
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+            node.offer(term);
+        }
+    }
+
+    // The most used terms starting with the prefix, best first
+    public synchronized List<String> complete(String prefix, int limit) {
+        String key = key(prefix);
+        Node node = root;
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+        if (node == null) {
+            return List.of();
+        }
+        List<String> completions = new ArrayList<>(Math.min(limit, node.top.length));
+        for (int i = 0; i < node.top.length && completions.size() < limit; i++) {
+            completions.add(node.top[i].text);
+        }
+        return completions;
+    }
+
+    public synchronized int size() {
+        return terms.size();
+    }
+
+    public synchronized void clear() {
+        root.keys = new char[0];
+        root.children = new Node[0];
+        root.top = new Term[0];
+        terms.clear();
+    }
+}
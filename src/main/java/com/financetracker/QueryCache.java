@@ -0,0 +1,138 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Results of read queries, keyed by the operation and its parameters and bounded by an
+// estimate of the memory they hold; the least recently used entries are evicted first.
+// Each entry is tagged with the data version it was read at. A lookup with any other
+// version discards the entry and misses, so a write never has to find what it affects.
+// Cached values are shared between callers and must be treated as read-only.
+public class QueryCache {
+
+    // Parameters may contain nulls; they must have value equality
+    public record Key(String operation, List<Object> parameters) {
+        public static Key of(String operation, Object... parameters) {
+            return new Key(operation, Arrays.asList(parameters));
+        }
+    }
+
+    public record Stats(long hits, long misses, long evictions, long staleDiscards, int entries, long bytes) {
+    }
+
+    private record Entry(Object value, long version, long bytes) {
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long staleDiscards;
+
+    public QueryCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // The value cached for the key at this data version, or null
+    public synchronized Object get(Key key, long version) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        if (entry.version() != version) {
+            entries.remove(key);
+            bytes -= entry.bytes();
+            staleDiscards++;
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.value();
+    }
+
+    // Values larger than the whole cache are not kept
+    public void put(Key key, long version, Object value) {
+        long size = estimateBytes(value);
+        if (size > maxBytes) {
+            return;
+        }
+        synchronized (this) {
+            Entry previous = entries.put(key, new Entry(value, version, size));
+            if (previous != null) {
+                bytes -= previous.bytes();
+            }
+            bytes += size;
+            Iterator<Entry> eldest = entries.values().iterator();
+            while (bytes > maxBytes) {
+                bytes -= eldest.next().bytes();
+                eldest.remove();
+                evictions++;
+            }
+        }
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    public synchronized Stats getStats() {
+        return new Stats(hits, misses, evictions, staleDiscards, entries.size(), bytes);
+    }
+
+    // Rough heap footprint of a result: object headers, references and string contents.
+    // It only has to be in proportion for the bound to work, not exact.
+    static long estimateBytes(Object value) {
+        if (value == null) {
+            return 0;
+        }
+        if (value instanceof String text) {
+            return 40 + text.length();
+        }
+        if (value instanceof Transaction transaction) {
+            return 128 + estimateBytes(transaction.getDescription()) + estimateBytes(transaction.getCategory())
+                    + estimateBytes(transaction.getAccount()) + estimateBytes(transaction.getCurrency());
+        }
+        if (value instanceof BigDecimal || value instanceof LocalDate || value instanceof Number) {
+            return 32;
+        }
+        if (value instanceof TrendPoint) {
+            return 120;
+        }
+        if (value instanceof Collection<?> collection) {
+            long total = 64;
+            for (Object element : collection) {
+                total += 8 + estimateBytes(element);
+            }
+            return total;
+        }
+        if (value instanceof Map<?, ?> map) {
+            long total = 64;
+            for (Map.Entry<?, ?> entry : map.entrySet()) {
+                total += 40 + estimateBytes(entry.getKey()) + estimateBytes(entry.getValue());
+            }
+            return total;
+        }
+        if (value instanceof Object[] array) {
+            long total = 16;
+            for (Object element : array) {
+                total += 8 + estimateBytes(element);
+            }
+            return total;
+        }
+        if (value instanceof DashboardFigures figures) {
+            return 96 + estimateBytes(figures.getExpenseCategoryTotals())
+                    + estimateBytes(figures.getMonthlyTotals()) + estimateBytes(figures.getTrend());
+        }
+        return 64;
+    }
+}
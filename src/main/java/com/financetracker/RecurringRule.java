@@ -0,0 +1,140 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.function.Consumer;
+
+// A transaction that repeats, such as rent on the 1st of every month or pay every two
+// weeks, stored once in recurring_rules. Its occurrences are never stored: they are
+// worked out from the start date when a range is asked for. Occurrence n falls on
+// start + n * interval units, counted from the start each time, so a rule starting on
+// the 31st falls on the last day of shorter months and returns to the 31st after them.
+public class RecurringRule {
+
+    public enum Unit {
+        DAY(ChronoUnit.DAYS), WEEK(ChronoUnit.WEEKS), MONTH(ChronoUnit.MONTHS), YEAR(ChronoUnit.YEARS);
+
+        private final ChronoUnit chronoUnit;
+
+        Unit(ChronoUnit chronoUnit) {
+            this.chronoUnit = chronoUnit;
+        }
+    }
+
+    private final int id;
+    private final String description;
+    private final BigDecimal amount;
+    private final String category;
+    private final Transaction.TransactionType type;
+    private final Unit unit;
+    private final int interval;
+    private final LocalDate start;
+    private final LocalDate end;
+
+    // end is the last day an occurrence may fall on, or null for no end
+    public RecurringRule(int id, String description, BigDecimal amount, String category,
+                         Transaction.TransactionType type, Unit unit, int interval,
+                         LocalDate start, LocalDate end) {
+        if (interval < 1) {
+            throw new IllegalArgumentException("Interval must be at least 1: " + interval);
+        }
+        if (end != null && end.isBefore(start)) {
+            throw new IllegalArgumentException("Rule ends before it starts: " + start + " to " + end);
+        }
+        this.id = id;
+        this.description = description;
+        this.amount = amount;
+        this.category = category;
+        this.type = type;
+        this.unit = unit;
+        this.interval = interval;
+        this.start = start;
+        this.end = end;
+    }
+
+    // For a rule that has not been saved yet
+    public RecurringRule(String description, BigDecimal amount, String category,
+                         Transaction.TransactionType type, Unit unit, int interval,
+                         LocalDate start, LocalDate end) {
+        this(-1, description, amount, category, type, unit, interval, start, end);
+    }
+
+    public int getId() { return id; }
+    public String getDescription() { return description; }
+    public BigDecimal getAmount() { return amount; }
+    public String getCategory() { return category; }
+    public Transaction.TransactionType getType() { return type; }
+    public Unit getUnit() { return unit; }
+    public int getInterval() { return interval; }
+    public LocalDate getStart() { return start; }
+    public LocalDate getEnd() { return end; }
+
+    public LocalDate occurrence(long index) {
+        return start.plus(index * interval, unit.chronoUnit);
+    }
+
+    // Index of the first occurrence on or after the date, which may be past the end
+    long firstIndexFrom(LocalDate date) {
+        if (!date.isAfter(start)) {
+            return 0;
+        }
+        long index = switch (unit) {
+            case DAY, WEEK -> {
+                long step = unit == Unit.WEEK ? 7L * interval : interval;
+                yield Math.floorDiv(ChronoUnit.DAYS.between(start, date) + step - 1, step);
+            }
+            // Months between the two month starts, rounded down; day clamping can put the
+            // occurrence in that month before the date, so step past it if it does
+            case MONTH, YEAR -> {
+                long step = unit == Unit.YEAR ? 12L * interval : interval;
+                yield ChronoUnit.MONTHS.between(start.withDayOfMonth(1), date.withDayOfMonth(1)) / step;
+            }
+        };
+        while (occurrence(index).isBefore(date)) {
+            index++;
+        }
+        return index;
+    }
+
+    // How many occurrences fall between two dates (inclusive), without visiting them
+    public long countBetween(LocalDate from, LocalDate to) {
+        LocalDate last = end != null && end.isBefore(to) ? end : to;
+        if (last.isBefore(from) || last.isBefore(start)) {
+            return 0;
+        }
+        return firstIndexFrom(last.plusDays(1)) - firstIndexFrom(from);
+    }
+
+    // The last occurrence on or before the date, or null if there is none yet
+    public LocalDate lastOccurrenceThrough(LocalDate date) {
+        LocalDate last = end != null && end.isBefore(date) ? end : date;
+        if (last.isBefore(start)) {
+            return null;
+        }
+        return occurrence(firstIndexFrom(last.plusDays(1)) - 1);
+    }
+
+    // Visits the occurrence dates between two dates (inclusive) in order
+    public void forEachOccurrence(LocalDate from, LocalDate to, Consumer<LocalDate> action) {
+        LocalDate last = end != null && end.isBefore(to) ? end : to;
+        for (long index = firstIndexFrom(from); ; index++) {
+            LocalDate date = occurrence(index);
+            if (date.isAfter(last)) {
+                return;
+            }
+            action.accept(date);
+        }
+    }
+
+    // The occurrence on a date as a transaction. It is not a stored row, so its id is the
+    // rule's negated, which no row has; it and the date tell occurrences apart.
+    public Transaction occurrenceOn(LocalDate date) {
+        return new Transaction(-id, date, description, amount, category, type);
+    }
+
+    public String describeFrequency() {
+        String name = unit.name().toLowerCase();
+        return interval == 1 ? "every " + name : "every " + interval + " " + name + "s";
+    }
+}
@@ -0,0 +1,192 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// The recurring rules in effect, and their occurrences added on top of figures read from
+// stored rows. Totals use occurrence counts where they can, so a daily rule running for
+// years costs the same as a monthly one; only month-of-year totals and trend buckets
+// visit the dates. Rules are in the home currency; a schedule converted to another one
+// has to visit every date, to use each occurrence's own day's rate. Immutable:
+// TransactionManager swaps in a new one when rules change.
+public class RecurringSchedule {
+    static final RecurringSchedule EMPTY = new RecurringSchedule(List.of());
+
+    private final List<RecurringRule> rules;
+    // From the home currency, as currency code 0; null to add amounts as they are
+    private final FxRateTable.Converter converter;
+
+    RecurringSchedule(List<RecurringRule> rules) {
+        this(rules, null);
+    }
+
+    private RecurringSchedule(List<RecurringRule> rules, FxRateTable.Converter converter) {
+        this.rules = List.copyOf(rules);
+        this.converter = converter;
+    }
+
+    // This schedule with its figures in another currency
+    RecurringSchedule convertedTo(String currency, FxRateTable rates) {
+        if (rules.isEmpty() || currency.equals(Transaction.HOME_CURRENCY)) {
+            return this;
+        }
+        return new RecurringSchedule(rules, rates.converter(currency, List.of(Transaction.HOME_CURRENCY)));
+    }
+
+    public List<RecurringRule> getRules() {
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return rules.isEmpty();
+    }
+
+    // Every occurrence between two dates (inclusive), by date and then rule; a null from
+    // starts at each rule's start
+    public List<Transaction> occurrences(LocalDate from, LocalDate to) {
+        List<Transaction> occurrences = new ArrayList<>();
+        for (RecurringRule rule : rules) {
+            rule.forEachOccurrence(from != null ? from : rule.getStart(), to, date -> occurrences.add(rule.occurrenceOn(date)));
+        }
+        // Stable, so occurrences on one day keep the rules' order
+        occurrences.sort(Comparator.comparing(Transaction::getDate));
+        return occurrences;
+    }
+
+    // Income and expense cents of the occurrences up to a date
+    long[] typeTotals(LocalDate through) {
+        long[] totals = new long[2];
+        for (RecurringRule rule : rules) {
+            totals[rule.getType() == Transaction.TransactionType.INCOME ? 0 : 1] += totalCents(rule, through);
+        }
+        return totals;
+    }
+
+    // Cents of a rule's occurrences up to a date: counted, or visited when converting
+    private long totalCents(RecurringRule rule, LocalDate through) {
+        long cents = Money.toCents(rule.getAmount());
+        if (converter == null) {
+            return cents * rule.countBetween(rule.getStart(), through);
+        }
+        long[] total = new long[1];
+        rule.forEachOccurrence(rule.getStart(), through, date -> total[0] += centsOn(cents, date));
+        return total[0];
+    }
+
+    private long centsOn(long cents, LocalDate date) {
+        return converter == null ? cents : converter.convert(cents, 0, (int) date.toEpochDay());
+    }
+
+    FinancialSummary addTo(FinancialSummary summary, LocalDate through) {
+        if (rules.isEmpty()) {
+            return summary;
+        }
+        long[] totals = typeTotals(through);
+        return new FinancialSummary(summary.getTotalIncome().add(Money.fromCents(totals[0])),
+                summary.getTotalExpenses().add(Money.fromCents(totals[1])));
+    }
+
+    // Category totals with the occurrences up to a date added, largest first again
+    Map<String, BigDecimal> addCategoryTotals(Map<String, BigDecimal> stored, Transaction.TransactionType type,
+                                              LocalDate through) {
+        Map<String, Long> cents = new LinkedHashMap<>();
+        stored.forEach((category, total) -> cents.put(category, Money.toCents(total)));
+        boolean changed = false;
+        for (RecurringRule rule : rules) {
+            if (rule.getType() == type && rule.countBetween(rule.getStart(), through) > 0) {
+                cents.merge(rule.getCategory(), totalCents(rule, through), Long::sum);
+                changed = true;
+            }
+        }
+        if (!changed) {
+            return stored;
+        }
+        Map<String, BigDecimal> totals = new LinkedHashMap<>();
+        cents.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .forEach(entry -> totals.put(entry.getKey(), Money.fromCents(entry.getValue())));
+        return totals;
+    }
+
+    // Month-of-year totals with the occurrences up to a date added
+    Map<Transaction.TransactionType, Map<Integer, BigDecimal>> addMonthlyTotals(
+            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> stored, LocalDate through) {
+        if (rules.isEmpty()) {
+            return stored;
+        }
+        long[][] months = new long[2][13];
+        boolean[][] seen = new boolean[2][13];
+        for (RecurringRule rule : rules) {
+            int type = rule.getType() == Transaction.TransactionType.INCOME ? 0 : 1;
+            long cents = Money.toCents(rule.getAmount());
+            rule.forEachOccurrence(rule.getStart(), through, date -> {
+                months[type][date.getMonthValue()] += centsOn(cents, date);
+                seen[type][date.getMonthValue()] = true;
+            });
+        }
+        Map<Transaction.TransactionType, Map<Integer, BigDecimal>> totals = new EnumMap<>(Transaction.TransactionType.class);
+        for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+            int index = type == Transaction.TransactionType.INCOME ? 0 : 1;
+            Map<Integer, BigDecimal> merged = new TreeMap<>(stored.getOrDefault(type, Map.of()));
+            for (int month = 1; month <= 12; month++) {
+                if (seen[index][month]) {
+                    merged.merge(month, Money.fromCents(months[index][month]), BigDecimal::add);
+                }
+            }
+            totals.put(type, merged);
+        }
+        return totals;
+    }
+
+    // Trend buckets with the occurrences in the buckets holding two dates added; buckets
+    // that only occurrences fall in are inserted in order. Whole buckets count, like the
+    // rollup tables behind the stored figures.
+    List<TrendPoint> addTrend(List<TrendPoint> stored, TrendGranularity granularity, LocalDate from, LocalDate to) {
+        if (rules.isEmpty()) {
+            return stored;
+        }
+        LocalDate first = granularity.bucketStart(from);
+        LocalDate last = granularity.nextBucket(granularity.bucketStart(to)).minusDays(1);
+        TreeMap<LocalDate, long[]> buckets = new TreeMap<>();
+        for (TrendPoint point : stored) {
+            buckets.put(point.getBucketStart(),
+                    new long[] {Money.toCents(point.getIncome()), Money.toCents(point.getExpenses())});
+        }
+        boolean[] changed = new boolean[1];
+        for (RecurringRule rule : rules) {
+            int type = rule.getType() == Transaction.TransactionType.INCOME ? 0 : 1;
+            long cents = Money.toCents(rule.getAmount());
+            rule.forEachOccurrence(first, last, date -> {
+                buckets.computeIfAbsent(granularity.bucketStart(date), bucket -> new long[2])[type] += centsOn(cents, date);
+                changed[0] = true;
+            });
+        }
+        if (!changed[0]) {
+            return stored;
+        }
+        List<TrendPoint> trend = new ArrayList<>(buckets.size());
+        buckets.forEach((bucket, totals) ->
+                trend.add(new TrendPoint(bucket, Money.fromCents(totals[0]), Money.fromCents(totals[1]))));
+        return trend;
+    }
+
+    // Whole-ledger figures take the occurrences up to a date, the trend those in its own range
+    DashboardFigures addTo(DashboardFigures figures, LocalDate through) {
+        if (rules.isEmpty()) {
+            return figures;
+        }
+        return new DashboardFigures(
+                addTo(figures.getSummary(), through),
+                addCategoryTotals(figures.getExpenseCategoryTotals(), Transaction.TransactionType.EXPENSE, through),
+                addMonthlyTotals(figures.getMonthlyTotals(), through),
+                figures.getGranularity(), figures.getFrom(), figures.getTo(),
+                addTrend(figures.getTrend(), figures.getGranularity(), figures.getFrom(), figures.getTo()));
+    }
+}
@@ -0,0 +1,616 @@
+package com.financetracker;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+// Brings the database up to the latest schema version, one migration at a time
+public class SchemaMigrator {
+
+    private record Migration(int version, String description, String... statements) {
+    }
+
+    private static final List<Migration> MIGRATIONS = List.of(
+            new Migration(1, "Create transactions table", """
+            CREATE TABLE IF NOT EXISTS transactions (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                date TEXT NOT NULL,
+                description TEXT NOT NULL,
+                amount DECIMAL(10,2) NOT NULL,
+                category TEXT NOT NULL,
+                type TEXT NOT NULL
+            )
+            """),
+
+            // date becomes days since 1970-01-01, amount becomes integer cents
+            new Migration(2, "Store integer cents and epoch days, add indexes", """
+            CREATE TABLE transactions_v2 (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                date INTEGER NOT NULL,
+                description TEXT NOT NULL,
+                amount_cents INTEGER NOT NULL,
+                category TEXT NOT NULL,
+                type TEXT NOT NULL
+            )
+            """, """
+            INSERT INTO transactions_v2 (id, date, description, amount_cents, category, type)
+            SELECT id,
+                   CAST(julianday(date) - julianday('1970-01-01') AS INTEGER),
+                   description,
+                   CAST(ROUND(amount * 100) AS INTEGER),
+                   category,
+                   type
+            FROM transactions
+            """,
+                    "DROP TABLE transactions",
+                    "ALTER TABLE transactions_v2 RENAME TO transactions",
+                    "CREATE INDEX idx_transactions_date ON transactions (date)",
+                    "CREATE INDEX idx_transactions_type_date ON transactions (type, date)",
+                    "CREATE INDEX idx_transactions_category_date ON transactions (category, date)"),
+
+            // Per day, month and year totals by category and type, kept in sync by triggers
+            new Migration(3, "Add daily, monthly and yearly rollup tables", """
+            CREATE TABLE rollup_daily (
+                day INTEGER NOT NULL,
+                category TEXT NOT NULL,
+                type TEXT NOT NULL,
+                total_cents INTEGER NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (day, category, type)
+            ) WITHOUT ROWID
+            """, """
+            CREATE TABLE rollup_monthly (
+                year INTEGER NOT NULL,
+                month INTEGER NOT NULL,
+                category TEXT NOT NULL,
+                type TEXT NOT NULL,
+                total_cents INTEGER NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (year, month, category, type)
+            ) WITHOUT ROWID
+            """, """
+            CREATE TABLE rollup_yearly (
+                year INTEGER NOT NULL,
+                category TEXT NOT NULL,
+                type TEXT NOT NULL,
+                total_cents INTEGER NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (year, category, type)
+            ) WITHOUT ROWID
+            """, """
+            INSERT INTO rollup_daily (day, category, type, total_cents, count)
+            SELECT date, category, type, SUM(amount_cents), COUNT(*)
+            FROM transactions
+            GROUP BY date, category, type
+            """, """
+            INSERT INTO rollup_monthly (year, month, category, type, total_cents, count)
+            SELECT CAST(strftime('%Y', day * 86400, 'unixepoch') AS INTEGER),
+                   CAST(strftime('%m', day * 86400, 'unixepoch') AS INTEGER),
+                   category, type, SUM(total_cents), SUM(count)
+            FROM rollup_daily
+            GROUP BY 1, 2, category, type
+            """, """
+            INSERT INTO rollup_yearly (year, category, type, total_cents, count)
+            SELECT year, category, type, SUM(total_cents), SUM(count)
+            FROM rollup_monthly
+            GROUP BY year, category, type
+            """, """
+            CREATE TRIGGER rollup_after_insert AFTER INSERT ON transactions
+            BEGIN
+                INSERT INTO rollup_daily (day, category, type, total_cents, count)
+                VALUES (NEW.date, NEW.category, NEW.type, NEW.amount_cents, 1)
+                ON CONFLICT (day, category, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+
+                INSERT INTO rollup_monthly (year, month, category, type, total_cents, count)
+                VALUES (CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        CAST(strftime('%m', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        NEW.category, NEW.type, NEW.amount_cents, 1)
+                ON CONFLICT (year, month, category, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+
+                INSERT INTO rollup_yearly (year, category, type, total_cents, count)
+                VALUES (CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        NEW.category, NEW.type, NEW.amount_cents, 1)
+                ON CONFLICT (year, category, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+            END
+            """, """
+            CREATE TRIGGER rollup_after_delete AFTER DELETE ON transactions
+            BEGIN
+                UPDATE rollup_daily
+                SET total_cents = total_cents - OLD.amount_cents, count = count - 1
+                WHERE day = OLD.date AND category = OLD.category AND type = OLD.type;
+                DELETE FROM rollup_daily
+                WHERE day = OLD.date AND category = OLD.category AND type = OLD.type AND count = 0;
+
+                UPDATE rollup_monthly
+                SET total_cents = total_cents - OLD.amount_cents, count = count - 1
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND month = CAST(strftime('%m', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category = OLD.category AND type = OLD.type;
+                DELETE FROM rollup_monthly
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND month = CAST(strftime('%m', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category = OLD.category AND type = OLD.type AND count = 0;
+
+                UPDATE rollup_yearly
+                SET total_cents = total_cents - OLD.amount_cents, count = count - 1
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category = OLD.category AND type = OLD.type;
+                DELETE FROM rollup_yearly
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category = OLD.category AND type = OLD.type AND count = 0;
+            END
+            """),
+
+            // Full-text index over description and category; the rows themselves stay in transactions
+            new Migration(4, "Add full-text search index", """
+            CREATE VIRTUAL TABLE transactions_fts USING fts5 (
+                description,
+                category,
+                content = 'transactions',
+                content_rowid = 'id',
+                tokenize = 'unicode61 remove_diacritics 2',
+                prefix = '1 2 3'
+            )
+            """,
+                    "INSERT INTO transactions_fts (transactions_fts) VALUES ('rebuild')",
+                    """
+            CREATE TRIGGER transactions_fts_after_insert AFTER INSERT ON transactions
+            BEGIN
+                INSERT INTO transactions_fts (rowid, description, category)
+                VALUES (NEW.id, NEW.description, NEW.category);
+            END
+            """, """
+            CREATE TRIGGER transactions_fts_after_delete AFTER DELETE ON transactions
+            BEGIN
+                INSERT INTO transactions_fts (transactions_fts, rowid, description, category)
+                VALUES ('delete', OLD.id, OLD.description, OLD.category);
+            END
+            """),
+
+            // Single-column indexes end in the rowid, so they serve (column, id) keyset sorts
+            new Migration(5, "Add indexes for sorting by amount and category",
+                    "CREATE INDEX idx_transactions_amount ON transactions (amount_cents)",
+                    "CREATE INDEX idx_transactions_category ON transactions (category)"),
+
+            // Rows reference a categories table instead of repeating the name. Names are matched
+            // trimmed and case-insensitively (ASCII, like SQLite's lower()); the first spelling
+            // seen becomes the display name. Rollups and the search index move to the id.
+            new Migration(6, "Normalize categories into their own table", """
+            CREATE TABLE categories (
+                id INTEGER PRIMARY KEY,
+                name TEXT NOT NULL,
+                normalized TEXT NOT NULL UNIQUE
+            )
+            """, """
+            INSERT INTO categories (name, normalized)
+            SELECT name, normalized
+            FROM (SELECT trim(category) AS name, lower(trim(category)) AS normalized, MIN(id) AS first_id
+                  FROM transactions
+                  GROUP BY lower(trim(category)))
+            ORDER BY first_id
+            """, """
+            CREATE TABLE transactions_v3 (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                date INTEGER NOT NULL,
+                description TEXT NOT NULL,
+                amount_cents INTEGER NOT NULL,
+                category_id INTEGER NOT NULL REFERENCES categories (id),
+                type TEXT NOT NULL
+            )
+            """, """
+            INSERT INTO transactions_v3 (id, date, description, amount_cents, category_id, type)
+            SELECT t.id, t.date, t.description, t.amount_cents, c.id, t.type
+            FROM transactions t
+            JOIN categories c ON c.normalized = lower(trim(t.category))
+            """,
+                    "DROP TABLE transactions_fts",
+                    "DROP TABLE rollup_daily",
+                    "DROP TABLE rollup_monthly",
+                    "DROP TABLE rollup_yearly",
+                    "DROP TABLE transactions",
+                    "ALTER TABLE transactions_v3 RENAME TO transactions",
+                    "CREATE INDEX idx_transactions_date ON transactions (date)",
+                    "CREATE INDEX idx_transactions_type_date ON transactions (type, date)",
+                    "CREATE INDEX idx_transactions_category_date ON transactions (category_id, date)",
+                    "CREATE INDEX idx_transactions_amount ON transactions (amount_cents)",
+                    """
+            CREATE VIEW transaction_rows AS
+            SELECT t.id, t.date, t.description, t.amount_cents, c.name AS category, t.category_id, t.type
+            FROM transactions t
+            JOIN categories c ON c.id = t.category_id
+            """, """
+            CREATE TABLE rollup_daily (
+                day INTEGER NOT NULL,
+                category_id INTEGER NOT NULL,
+                type TEXT NOT NULL,
+                total_cents INTEGER NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (day, category_id, type)
+            ) WITHOUT ROWID
+            """, """
+            CREATE TABLE rollup_monthly (
+                year INTEGER NOT NULL,
+                month INTEGER NOT NULL,
+                category_id INTEGER NOT NULL,
+                type TEXT NOT NULL,
+                total_cents INTEGER NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (year, month, category_id, type)
+            ) WITHOUT ROWID
+            """, """
+            CREATE TABLE rollup_yearly (
+                year INTEGER NOT NULL,
+                category_id INTEGER NOT NULL,
+                type TEXT NOT NULL,
+                total_cents INTEGER NOT NULL,
+                count INTEGER NOT NULL,
+                PRIMARY KEY (year, category_id, type)
+            ) WITHOUT ROWID
+            """, """
+            INSERT INTO rollup_daily (day, category_id, type, total_cents, count)
+            SELECT date, category_id, type, SUM(amount_cents), COUNT(*)
+            FROM transactions
+            GROUP BY date, category_id, type
+            """, """
+            INSERT INTO rollup_monthly (year, month, category_id, type, total_cents, count)
+            SELECT CAST(strftime('%Y', day * 86400, 'unixepoch') AS INTEGER),
+                   CAST(strftime('%m', day * 86400, 'unixepoch') AS INTEGER),
+                   category_id, type, SUM(total_cents), SUM(count)
+            FROM rollup_daily
+            GROUP BY 1, 2, category_id, type
+            """, """
+            INSERT INTO rollup_yearly (year, category_id, type, total_cents, count)
+            SELECT year, category_id, type, SUM(total_cents), SUM(count)
+            FROM rollup_monthly
+            GROUP BY year, category_id, type
+            """, """
+            CREATE TRIGGER rollup_after_insert AFTER INSERT ON transactions
+            BEGIN
+                INSERT INTO rollup_daily (day, category_id, type, total_cents, count)
+                VALUES (NEW.date, NEW.category_id, NEW.type, NEW.amount_cents, 1)
+                ON CONFLICT (day, category_id, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+
+                INSERT INTO rollup_monthly (year, month, category_id, type, total_cents, count)
+                VALUES (CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        CAST(strftime('%m', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        NEW.category_id, NEW.type, NEW.amount_cents, 1)
+                ON CONFLICT (year, month, category_id, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+
+                INSERT INTO rollup_yearly (year, category_id, type, total_cents, count)
+                VALUES (CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        NEW.category_id, NEW.type, NEW.amount_cents, 1)
+                ON CONFLICT (year, category_id, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+            END
+            """, """
+            CREATE TRIGGER rollup_after_delete AFTER DELETE ON transactions
+            BEGIN
+                UPDATE rollup_daily
+                SET total_cents = total_cents - OLD.amount_cents, count = count - 1
+                WHERE day = OLD.date AND category_id = OLD.category_id AND type = OLD.type;
+                DELETE FROM rollup_daily
+                WHERE day = OLD.date AND category_id = OLD.category_id AND type = OLD.type AND count = 0;
+
+                UPDATE rollup_monthly
+                SET total_cents = total_cents - OLD.amount_cents, count = count - 1
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND month = CAST(strftime('%m', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type;
+                DELETE FROM rollup_monthly
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND month = CAST(strftime('%m', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type AND count = 0;
+
+                UPDATE rollup_yearly
+                SET total_cents = total_cents - OLD.amount_cents, count = count - 1
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type;
+                DELETE FROM rollup_yearly
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type AND count = 0;
+            END
+            """, """
+            CREATE VIRTUAL TABLE transactions_fts USING fts5 (
+                description,
+                category,
+                content = 'transaction_rows',
+                content_rowid = 'id',
+                tokenize = 'unicode61 remove_diacritics 2',
+                prefix = '1 2 3'
+            )
+            """,
+                    "INSERT INTO transactions_fts (transactions_fts) VALUES ('rebuild')",
+                    """
+            CREATE TRIGGER transactions_fts_after_insert AFTER INSERT ON transactions
+            BEGIN
+                INSERT INTO transactions_fts (rowid, description, category)
+                VALUES (NEW.id, NEW.description, (SELECT name FROM categories WHERE id = NEW.category_id));
+            END
+            """, """
+            CREATE TRIGGER transactions_fts_after_delete AFTER DELETE ON transactions
+            BEGIN
+                INSERT INTO transactions_fts (transactions_fts, rowid, description, category)
+                VALUES ('delete', OLD.id, OLD.description, (SELECT name FROM categories WHERE id = OLD.category_id));
+            END
+            """),
+            // data_version goes up with every change to the rows or category names, so
+            // anything derived from them (e.g. AggregateSnapshot) can tell if it is stale.
+            // database_id tells this file apart from another one at the same version.
+            new Migration(7, "Add a data version counter", """
+            CREATE TABLE meta (
+                key TEXT PRIMARY KEY,
+                value INTEGER NOT NULL
+            ) WITHOUT ROWID
+            """,
+                    "INSERT INTO meta (key, value) VALUES ('data_version', 0), ('database_id', abs(random()))",
+                    """
+            CREATE TRIGGER data_version_after_insert AFTER INSERT ON transactions
+            BEGIN
+                UPDATE meta SET value = value + 1 WHERE key = 'data_version';
+            END
+            """, """
+            CREATE TRIGGER data_version_after_update AFTER UPDATE ON transactions
+            BEGIN
+                UPDATE meta SET value = value + 1 WHERE key = 'data_version';
+            END
+            """, """
+            CREATE TRIGGER data_version_after_delete AFTER DELETE ON transactions
+            BEGIN
+                UPDATE meta SET value = value + 1 WHERE key = 'data_version';
+            END
+            """, """
+            CREATE TRIGGER data_version_after_category_update AFTER UPDATE ON categories
+            BEGIN
+                UPDATE meta SET value = value + 1 WHERE key = 'data_version';
+            END
+            """),
+            // A recurring transaction is stored once as a rule; its occurrences are worked
+            // out when queried (see RecurringRule). Dates are epoch days like transactions.date,
+            // and end_date is the last day an occurrence may fall on, NULL for no end.
+            new Migration(8, "Add recurring transaction rules", """
+            CREATE TABLE recurring_rules (
+                id INTEGER PRIMARY KEY AUTOINCREMENT,
+                description TEXT NOT NULL,
+                amount_cents INTEGER NOT NULL,
+                category_id INTEGER NOT NULL REFERENCES categories (id),
+                type TEXT NOT NULL,
+                unit TEXT NOT NULL CHECK (unit IN ('DAY', 'WEEK', 'MONTH', 'YEAR')),
+                interval INTEGER NOT NULL CHECK (interval > 0),
+                start_date INTEGER NOT NULL,
+                end_date INTEGER CHECK (end_date IS NULL OR end_date >= start_date)
+            )
+            """, """
+            CREATE TRIGGER data_version_after_rule_insert AFTER INSERT ON recurring_rules
+            BEGIN
+                UPDATE meta SET value = value + 1 WHERE key = 'data_version';
+            END
+            """, """
+            CREATE TRIGGER data_version_after_rule_delete AFTER DELETE ON recurring_rules
+            BEGIN
+                UPDATE meta SET value = value + 1 WHERE key = 'data_version';
+            END
+            """),
+            // A monthly spending limit per category. Nothing is derived from it, so it
+            // leaves data_version alone.
+            new Migration(9, "Add monthly category budgets", """
+            CREATE TABLE budgets (
+                category_id INTEGER PRIMARY KEY REFERENCES categories (id),
+                limit_cents INTEGER NOT NULL CHECK (limit_cents > 0)
+            )
+            """),
+            // Every row belongs to an account and is in an ISO 4217 currency; existing rows
+            // go to a default account in USD, the home currency.
+            // fx_rates holds what one unit of each other currency was worth in USD on a day.
+            // The rates table itself leaves data_version alone, but since migration 11 an
+            // import reprices the foreign rows, which bumps it through the update trigger.
+            new Migration(10, "Add accounts, currencies and daily exchange rates", """
+            CREATE TABLE accounts (
+                id INTEGER PRIMARY KEY,
+                name TEXT NOT NULL,
+                normalized TEXT NOT NULL UNIQUE
+            )
+            """,
+                    "INSERT INTO accounts (id, name, normalized) VALUES (1, 'Main', 'main')",
+                    "ALTER TABLE transactions ADD COLUMN account_id INTEGER NOT NULL DEFAULT 1 REFERENCES accounts (id)",
+                    "ALTER TABLE transactions ADD COLUMN currency TEXT NOT NULL DEFAULT 'USD'",
+                    // Only the few foreign rows are indexed, to find them when rates change
+                    "CREATE INDEX idx_transactions_foreign_currency ON transactions (currency) WHERE currency <> 'USD'",
+                    """
+            CREATE TABLE fx_rates (
+                currency TEXT NOT NULL,
+                day INTEGER NOT NULL,
+                rate REAL NOT NULL CHECK (rate > 0),
+                PRIMARY KEY (currency, day)
+            ) WITHOUT ROWID
+            """,
+                    "DROP VIEW transaction_rows",
+                    """
+            CREATE VIEW transaction_rows AS
+            SELECT t.id, t.date, t.description, t.amount_cents, c.name AS category, t.category_id, t.type,
+                   a.name AS account, t.account_id, t.currency
+            FROM transactions t
+            JOIN categories c ON c.id = t.category_id
+            JOIN accounts a ON a.id = t.account_id
+            """),
+            // home_cents is a foreign row's amount in USD at its day's rate, set when the
+            // row is written and again when rates are imported; NULL for a USD row, where
+            // it is amount_cents. The rollups sum it, so every stored figure is in USD.
+            // Rows added before this get the rate TransactionManager would have used: the
+            // last one on or before their day, or the currency's first one.
+            new Migration(11, "Sum the rollups in the home currency",
+                    "ALTER TABLE transactions ADD COLUMN home_cents INTEGER",
+                    """
+            UPDATE transactions
+            SET home_cents = CAST(ROUND(amount_cents * COALESCE(
+                (SELECT rate FROM fx_rates f WHERE f.currency = transactions.currency AND f.day <= transactions.date
+                 ORDER BY f.day DESC LIMIT 1),
+                (SELECT rate FROM fx_rates f WHERE f.currency = transactions.currency ORDER BY f.day LIMIT 1))) AS INTEGER)
+            WHERE currency <> 'USD'
+            """,
+                    "DROP TRIGGER rollup_after_insert",
+                    "DROP TRIGGER rollup_after_delete",
+                    "DELETE FROM rollup_daily",
+                    "DELETE FROM rollup_monthly",
+                    "DELETE FROM rollup_yearly",
+                    """
+            INSERT INTO rollup_daily (day, category_id, type, total_cents, count)
+            SELECT date, category_id, type, SUM(COALESCE(home_cents, amount_cents)), COUNT(*)
+            FROM transactions
+            GROUP BY date, category_id, type
+            """, """
+            INSERT INTO rollup_monthly (year, month, category_id, type, total_cents, count)
+            SELECT CAST(strftime('%Y', day * 86400, 'unixepoch') AS INTEGER),
+                   CAST(strftime('%m', day * 86400, 'unixepoch') AS INTEGER),
+                   category_id, type, SUM(total_cents), SUM(count)
+            FROM rollup_daily
+            GROUP BY 1, 2, category_id, type
+            """, """
+            INSERT INTO rollup_yearly (year, category_id, type, total_cents, count)
+            SELECT year, category_id, type, SUM(total_cents), SUM(count)
+            FROM rollup_monthly
+            GROUP BY year, category_id, type
+            """, """
+            CREATE TRIGGER rollup_after_insert AFTER INSERT ON transactions
+            BEGIN
+                INSERT INTO rollup_daily (day, category_id, type, total_cents, count)
+                VALUES (NEW.date, NEW.category_id, NEW.type, COALESCE(NEW.home_cents, NEW.amount_cents), 1)
+                ON CONFLICT (day, category_id, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+
+                INSERT INTO rollup_monthly (year, month, category_id, type, total_cents, count)
+                VALUES (CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        CAST(strftime('%m', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        NEW.category_id, NEW.type, COALESCE(NEW.home_cents, NEW.amount_cents), 1)
+                ON CONFLICT (year, month, category_id, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+
+                INSERT INTO rollup_yearly (year, category_id, type, total_cents, count)
+                VALUES (CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER),
+                        NEW.category_id, NEW.type, COALESCE(NEW.home_cents, NEW.amount_cents), 1)
+                ON CONFLICT (year, category_id, type)
+                DO UPDATE SET total_cents = total_cents + excluded.total_cents, count = count + 1;
+            END
+            """, """
+            CREATE TRIGGER rollup_after_delete AFTER DELETE ON transactions
+            BEGIN
+                UPDATE rollup_daily
+                SET total_cents = total_cents - COALESCE(OLD.home_cents, OLD.amount_cents), count = count - 1
+                WHERE day = OLD.date AND category_id = OLD.category_id AND type = OLD.type;
+                DELETE FROM rollup_daily
+                WHERE day = OLD.date AND category_id = OLD.category_id AND type = OLD.type AND count = 0;
+
+                UPDATE rollup_monthly
+                SET total_cents = total_cents - COALESCE(OLD.home_cents, OLD.amount_cents), count = count - 1
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND month = CAST(strftime('%m', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type;
+                DELETE FROM rollup_monthly
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND month = CAST(strftime('%m', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type AND count = 0;
+
+                UPDATE rollup_yearly
+                SET total_cents = total_cents - COALESCE(OLD.home_cents, OLD.amount_cents), count = count - 1
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type;
+                DELETE FROM rollup_yearly
+                WHERE year = CAST(strftime('%Y', OLD.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = OLD.category_id AND type = OLD.type AND count = 0;
+            END
+            """, """
+            CREATE TRIGGER rollup_after_home_cents_update AFTER UPDATE OF home_cents ON transactions
+            BEGIN
+                UPDATE rollup_daily
+                SET total_cents = total_cents + COALESCE(NEW.home_cents, NEW.amount_cents) - COALESCE(OLD.home_cents, OLD.amount_cents)
+                WHERE day = NEW.date AND category_id = NEW.category_id AND type = NEW.type;
+
+                UPDATE rollup_monthly
+                SET total_cents = total_cents + COALESCE(NEW.home_cents, NEW.amount_cents) - COALESCE(OLD.home_cents, OLD.amount_cents)
+                WHERE year = CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER)
+                  AND month = CAST(strftime('%m', NEW.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = NEW.category_id AND type = NEW.type;
+
+                UPDATE rollup_yearly
+                SET total_cents = total_cents + COALESCE(NEW.home_cents, NEW.amount_cents) - COALESCE(OLD.home_cents, OLD.amount_cents)
+                WHERE year = CAST(strftime('%Y', NEW.date * 86400, 'unixepoch') AS INTEGER)
+                  AND category_id = NEW.category_id AND type = NEW.type;
+            END
+            """,
+                    "DROP VIEW transaction_rows",
+                    """
+            CREATE VIEW transaction_rows AS
+            SELECT t.id, t.date, t.description, t.amount_cents, c.name AS category, t.category_id, t.type,
+                   a.name AS account, t.account_id, t.currency, COALESCE(t.home_cents, t.amount_cents) AS home_cents
+            FROM transactions t
+            JOIN categories c ON c.id = t.category_id
+            JOIN accounts a ON a.id = t.account_id
+            """),
+            // Like every SQLite index this one ends in the rowid, so it holds rows in
+            // (description, id) order and a keyset page sorted by description is a range
+            // scan instead of a sort of every matching row.
+            new Migration(12, "Index transactions by description",
+                    "CREATE INDEX idx_transactions_description ON transactions (description)")
+    );
+
+    private final Connection connection;
+
+    public SchemaMigrator(Connection connection) {
+        this.connection = connection;
+    }
+
+    public void migrate() throws SQLException {
+        try (Statement stmt = connection.createStatement()) {
+            stmt.execute("""
+            CREATE TABLE IF NOT EXISTS schema_version (
+                version INTEGER PRIMARY KEY,
+                description TEXT NOT NULL,
+                applied_at TEXT NOT NULL DEFAULT CURRENT_TIMESTAMP
+            )
+            """);
+        }
+
+        int current = currentVersion();
+        for (Migration migration : MIGRATIONS) {
+            if (migration.version() > current) {
+                apply(migration);
+            }
+        }
+    }
+
+    private int currentVersion() throws SQLException {
+        try (Statement stmt = connection.createStatement();
+             ResultSet rs = stmt.executeQuery("SELECT COALESCE(MAX(version), 0) FROM schema_version")) {
+            return rs.next() ? rs.getInt(1) : 0;
+        }
+    }
+
+    // Each migration runs in its own transaction together with its version row
+    private void apply(Migration migration) throws SQLException {
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        try (Statement stmt = connection.createStatement();
+             PreparedStatement record = connection.prepareStatement(
+                     "INSERT INTO schema_version (version, description) VALUES (?, ?)")) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+            record.setInt(1, migration.version());
+            record.setString(2, migration.description());
+            record.executeUpdate();
+            connection.commit();
+        } catch (SQLException e) {
+            connection.rollback();
+            throw new SQLException("Migration " + migration.version() + " failed: " + e.getMessage(), e);
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+    }
+}
@@ -0,0 +1,9 @@
+package com.financetracker;
+
+import java.sql.SQLException;
+
+// A unit of database work that may throw SQLException
+@FunctionalInterface
+public interface SqlFunction<T, R> {
+    R apply(T input) throws SQLException;
+}
@@ -0,0 +1,59 @@
+package com.financetracker;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+// TransactionStore over the SQLite database, through a TransactionManager of its own
+public class SqliteTransactionStore implements TransactionStore {
+    private static final TransactionQuery BY_ID =
+            TransactionQuery.builder().sortBy(TransactionQuery.SortColumn.ID, true).build();
+
+    private final TransactionManager transactionManager;
+
+    public SqliteTransactionStore(String databasePath) {
+        this.transactionManager = new TransactionManager(databasePath);
+    }
+
+    public TransactionManager getTransactionManager() {
+        return transactionManager;
+    }
+
+    @Override
+    public int add(Transaction transaction) {
+        int id = transactionManager.addTransaction(transaction);
+        if (id < 0) {
+            throw new RuntimeException("Error adding transaction");
+        }
+        return id;
+    }
+
+    @Override
+    public int addAll(Iterator<Transaction> transactions) {
+        return transactionManager.addTransactions(transactions);
+    }
+
+    @Override
+    public boolean remove(int id) {
+        return transactionManager.removeTransaction(id);
+    }
+
+    @Override
+    public int count() {
+        return transactionManager.getTransactionCount();
+    }
+
+    @Override
+    public void forEach(Consumer<Transaction> action) {
+        transactionManager.forEachTransaction(BY_ID, action);
+    }
+
+    @Override
+    public void compact() {
+        transactionManager.compact();
+    }
+
+    @Override
+    public void close() {
+        transactionManager.close();
+    }
+}
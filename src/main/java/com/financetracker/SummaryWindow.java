@@ -1,5 +1,6 @@
 package com.financetracker;
 
+import javafx.application.Platform;
 import javafx.geometry.Insets;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
@@ -28,31 +29,21 @@ public class SummaryWindow {
         grid.setVgap(15);
         grid.setAlignment(Pos.CENTER);
 
-        // Get financial summary
-        FinancialSummary summary = transactionManager.getFinancialSummary();
-
         // Create and style title
         Label titleLabel = new Label("Financial Summary");
         titleLabel.getStyleClass().addAll("summary-label", "title-label");
         titleLabel.setStyle("-fx-font-size: 20px; -fx-padding: 0 0 10 0;");
 
-        // Create main summary labels
-        Label incomeLabel = new Label(String.format("Total Income: $%,.2f", summary.getTotalIncome()));
-        Label expensesLabel = new Label(String.format("Total Expenses: $%,.2f", summary.getTotalExpenses()));
-        Label balanceLabel = new Label(String.format("Current Balance: $%,.2f", summary.getBalance()));
+        // Create main summary labels, filled in once the summary is read
+        Label incomeLabel = new Label("Total Income: ...");
+        Label expensesLabel = new Label("Total Expenses: ...");
+        Label balanceLabel = new Label("Current Balance: ...");
 
         // Apply styling classes
         incomeLabel.getStyleClass().add("summary-label");
         expensesLabel.getStyleClass().add("summary-label");
         balanceLabel.getStyleClass().addAll("summary-label", "summary-balance");
 
-        // Add balance color styling
-        if (summary.getBalance().compareTo(BigDecimal.ZERO) > 0) {
-            balanceLabel.getStyleClass().add("positive-balance");
-        } else if (summary.getBalance().compareTo(BigDecimal.ZERO) < 0) {
-            balanceLabel.getStyleClass().add("negative-balance");
-        }
-
         // Add components to grid with proper spacing
         grid.add(titleLabel, 0, 0, 2, 1);
         GridPane.setMargin(titleLabel, new Insets(0, 0, 20, 0));
@@ -79,5 +70,24 @@ public class SummaryWindow {
 
         // Center the window on the screen
         stage.centerOnScreen();
+
+        // Read off the FX thread, as converting to another currency takes a scan
+        transactionManager.getFinancialSummaryAsync().whenComplete((summary, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                return;
+            }
+            String currency = transactionManager.getReportingCurrency();
+            incomeLabel.setText("Total Income: " + Money.format(summary.getTotalIncome(), currency));
+            expensesLabel.setText("Total Expenses: " + Money.format(summary.getTotalExpenses(), currency));
+            balanceLabel.setText("Current Balance: " + Money.format(summary.getBalance(), currency));
+
+            // Add balance color styling
+            if (summary.getBalance().compareTo(BigDecimal.ZERO) > 0) {
+                balanceLabel.getStyleClass().add("positive-balance");
+            } else if (summary.getBalance().compareTo(BigDecimal.ZERO) < 0) {
+                balanceLabel.getStyleClass().add("negative-balance");
+            }
+        }));
     }
 }
@@ -4,12 +4,18 @@ import java.math.BigDecimal;
 import java.time.LocalDate;
 
 public class Transaction {
+    // Rows that do not name an account or currency go to these
+    public static final String DEFAULT_ACCOUNT = "Main";
+    public static final String HOME_CURRENCY = "USD";
+
     private int id;  // Add ID field
     private LocalDate date;
     private String description;
     private BigDecimal amount;
     private String category;
     private TransactionType type;
+    private String account;
+    private String currency;  // ISO 4217 code
 
     public enum TransactionType {
         INCOME, EXPENSE
@@ -17,13 +23,25 @@ public class Transaction {
 
     // Add constructor with ID for database retrieval
     public Transaction(int id, LocalDate date, String description, BigDecimal amount,
-                       String category, TransactionType type) {
+                       String category, TransactionType type, String account, String currency) {
         this.id = id;
         this.date = date;
         this.description = description;
         this.amount = amount;
         this.category = category;
         this.type = type;
+        this.account = account;
+        this.currency = normalizeCurrency(currency);
+    }
+
+    public Transaction(int id, LocalDate date, String description, BigDecimal amount,
+                       String category, TransactionType type) {
+        this(id, date, description, amount, category, type, DEFAULT_ACCOUNT, HOME_CURRENCY);
+    }
+
+    public Transaction(LocalDate date, String description, BigDecimal amount,
+                       String category, TransactionType type, String account, String currency) {
+        this(-1, date, description, amount, category, type, account, currency);
     }
 
     // Keep existing constructor for new transactions
@@ -41,10 +59,30 @@ public class Transaction {
     public String getCategory() { return category; }
     public TransactionType getType() { return type; }
     public int getId() { return id; }
+    public String getAccount() { return account; }
+    public String getCurrency() { return currency; }
+
+    // Upper-cased three-letter code; anything else is rejected. Checked a character at a
+    // time, as it runs for every row read or imported.
+    public static String normalizeCurrency(String currency) {
+        if (currency.equals(HOME_CURRENCY)) {
+            return HOME_CURRENCY;
+        }
+        String code = currency.trim().toUpperCase();
+        if (code.length() != 3) {
+            throw new IllegalArgumentException("Not an ISO currency code: " + currency);
+        }
+        for (int i = 0; i < 3; i++) {
+            if (code.charAt(i) < 'A' || code.charAt(i) > 'Z') {
+                throw new IllegalArgumentException("Not an ISO currency code: " + currency);
+            }
+        }
+        return code;
+    }
 
     @Override
     public String toString() {
-        return String.format("\n%d | %s | %-20s | %-8s | %-10s | %s",
-                id, date, description, amount, category, type);
+        return String.format("\n%d | %s | %-20s | %-8s %s | %-10s | %s | %s",
+                id, date, description, amount, currency, category, type, account);
     }
 }
\ No newline at end of file
@@ -0,0 +1,21 @@
+package com.financetracker;
+
+import java.util.List;
+
+// Everything that changed in the ledger during one dispatch frame.
+// A bulk change set carries no rows; listeners should reload what they show.
+public class TransactionChangeSet {
+    private final List<Transaction> added;
+    private final List<Transaction> removed;
+    private final boolean bulk;
+
+    public TransactionChangeSet(List<Transaction> added, List<Transaction> removed, boolean bulk) {
+        this.added = List.copyOf(added);
+        this.removed = List.copyOf(removed);
+        this.bulk = bulk;
+    }
+
+    public List<Transaction> getAdded() { return added; }
+    public List<Transaction> getRemoved() { return removed; }
+    public boolean isBulk() { return bulk; }
+}
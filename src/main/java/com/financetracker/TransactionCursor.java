@@ -0,0 +1,21 @@
+package com.financetracker;
+
+import java.time.LocalDate;
+
+// Position in the (date DESC, id DESC) ordering used for keyset pagination
+public class TransactionCursor {
+    private final LocalDate date;
+    private final int id;
+
+    public TransactionCursor(LocalDate date, int id) {
+        this.date = date;
+        this.id = id;
+    }
+
+    public static TransactionCursor of(Transaction transaction) {
+        return new TransactionCursor(transaction.getDate(), transaction.getId());
+    }
+
+    public LocalDate getDate() { return date; }
+    public int getId() { return id; }
+}
@@ -0,0 +1,121 @@
+package com.financetracker;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Delivers ledger changes to listeners on a background thread. Changes published
+// within one frame are merged into a single TransactionChangeSet, and listeners are
+// held weakly so views that are no longer shown can be garbage collected.
+public class TransactionEventBus {
+    private static final long FRAME_MILLIS = 16;
+    private static final int MAX_DETAILED_CHANGES = 500;
+
+    private final List<WeakReference<TransactionListener>> subscribers = new CopyOnWriteArrayList<>();
+    private final ScheduledExecutorService dispatcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "transaction-events");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Guarded by this; null when no flush is scheduled
+    private List<Transaction> pendingAdded;
+    private List<Transaction> pendingRemoved;
+    private boolean pendingBulk;
+
+    public void subscribe(TransactionListener listener) {
+        for (WeakReference<TransactionListener> reference : subscribers) {
+            if (reference.get() == listener) {
+                return;
+            }
+        }
+        subscribers.add(new WeakReference<>(listener));
+    }
+
+    public void unsubscribe(TransactionListener listener) {
+        subscribers.removeIf(reference -> {
+            TransactionListener subscriber = reference.get();
+            return subscriber == null || subscriber == listener;
+        });
+    }
+
+    public void publishAdded(Transaction transaction) {
+        publish(transaction, null, false);
+    }
+
+    public void publishRemoved(Transaction transaction) {
+        publish(null, transaction, false);
+    }
+
+    public void publishBulkChange() {
+        publish(null, null, true);
+    }
+
+    private synchronized void publish(Transaction added, Transaction removed, boolean bulk) {
+        if (pendingAdded == null) {
+            pendingAdded = new ArrayList<>();
+            pendingRemoved = new ArrayList<>();
+            pendingBulk = false;
+            dispatcher.schedule(this::flush, FRAME_MILLIS, TimeUnit.MILLISECONDS);
+        }
+        if (pendingBulk) {
+            return;
+        }
+        if (added != null) {
+            pendingAdded.add(added);
+        }
+        if (removed != null) {
+            pendingRemoved.add(removed);
+        }
+
+        // Past a certain size the individual rows stop being useful to listeners
+        if (bulk || pendingAdded.size() + pendingRemoved.size() > MAX_DETAILED_CHANGES) {
+            pendingBulk = true;
+            pendingAdded.clear();
+            pendingRemoved.clear();
+        }
+    }
+
+    private void flush() {
+        TransactionChangeSet changes;
+        synchronized (this) {
+            changes = new TransactionChangeSet(pendingAdded, pendingRemoved, pendingBulk);
+            pendingAdded = null;
+            pendingRemoved = null;
+        }
+
+        for (WeakReference<TransactionListener> reference : subscribers) {
+            TransactionListener listener = reference.get();
+            if (listener == null) {
+                subscribers.remove(reference);
+                continue;
+            }
+            ListenerCallbackEvent event = new ListenerCallbackEvent();
+            event.begin();
+            long start = System.nanoTime();
+            try {
+                listener.onTransactionsChanged(changes);
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+            long elapsed = System.nanoTime() - start;
+            event.end();
+            if (event.shouldCommit()) {
+                event.listenerClass = listener.getClass();
+                event.changedRows = changes.getAdded().size() + changes.getRemoved().size();
+                event.bulk = changes.isBulk();
+                event.commit();
+            }
+            Metrics.increment("listener.callbacks", 1);
+            Metrics.recordLatency("listener." + listener.getClass().getSimpleName(), elapsed);
+        }
+    }
+
+    public void shutdown() {
+        dispatcher.shutdown();
+    }
+}
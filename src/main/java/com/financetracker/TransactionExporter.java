@@ -0,0 +1,276 @@
+package com.financetracker;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+// Writes the transactions matching a query's filters to a CSV or JSON file. Rows come
+// straight off the ResultSet through TransactionManager.streamTransactions, text as the
+// UTF-8 bytes SQLite stores, and are encoded into one reused direct buffer that is flushed
+// to a FileChannel whenever it fills, so memory use stays the same whatever the number of
+// rows. They are written oldest first, with recurring occurrences merged in by date; an
+// occurrence has no id, so its JSON id is null. The CSV has the columns
+// CsvTransactionImporter reads; the JSON is an array with one object per line.
+public class TransactionExporter {
+
+    public enum Format {
+        CSV, JSON;
+
+        // The format for a file name, by its extension; anything but .json is CSV
+        public static Format forFile(Path path) {
+            return path.getFileName().toString().toLowerCase().endsWith(".json") ? JSON : CSV;
+        }
+    }
+
+    static final int FETCH_SIZE = 1000;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+
+    private final TransactionManager transactionManager;
+
+    public TransactionExporter(TransactionManager transactionManager) {
+        this.transactionManager = transactionManager;
+    }
+
+    // Returns the number of rows written
+    public int export(TransactionQuery query, Path path, Format format) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            RowWriter writer = new RowWriter(channel, format);
+            writer.begin();
+            int rows = transactionManager.streamTransactions(
+                    query.withSort(TransactionQuery.SortColumn.DATE, true), FETCH_SIZE, writer);
+            writer.end();
+            return rows;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static final class RowWriter implements TransactionManager.RowHandler {
+        private final FileChannel channel;
+        private final Format format;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+        private boolean first = true;
+
+        // Rows usually come grouped by date, so the last date's text is reused
+        private long lastDay = Long.MIN_VALUE;
+        private byte[] lastDate;
+
+        RowWriter(FileChannel channel, Format format) {
+            this.channel = channel;
+            this.format = format;
+        }
+
+        void begin() throws IOException {
+            putAscii(format == Format.CSV ? "date,description,amount,category,type,account,currency\n" : "[\n");
+        }
+
+        void end() throws IOException {
+            if (format == Format.JSON) {
+                putAscii(first ? "]\n" : "\n]\n");
+            }
+            flush();
+        }
+
+        // Columns in TransactionManager.STREAM_COLUMNS order
+        @Override
+        public void handle(ResultSet row) throws SQLException {
+            write(row.getInt(1), row.getLong(2), row.getBytes(3), row.getLong(4), row.getBytes(5),
+                    row.getBytes(6), row.getBytes(7), row.getBytes(8));
+        }
+
+        @Override
+        public void handleOccurrence(Transaction occurrence) {
+            write(null, occurrence.getDate().toEpochDay(), utf8(occurrence.getDescription()),
+                    Money.toCents(occurrence.getAmount()), utf8(occurrence.getCategory()),
+                    utf8(occurrence.getType().toString()), utf8(occurrence.getAccount()), utf8(occurrence.getCurrency()));
+        }
+
+        private static byte[] utf8(String text) {
+            return text.getBytes(StandardCharsets.UTF_8);
+        }
+
+        private void write(Integer id, long day, byte[] description, long cents, byte[] category,
+                           byte[] type, byte[] account, byte[] currency) {
+            try {
+                if (format == Format.CSV) {
+                    writeCsv(day, description, cents, category, type, account, currency);
+                } else {
+                    writeJson(id, day, description, cents, category, type, account, currency);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            first = false;
+        }
+
+        private void writeCsv(long day, byte[] description, long cents, byte[] category,
+                              byte[] type, byte[] account, byte[] currency) throws IOException {
+            putDate(day);
+            put((byte) ',');
+            putCsvField(description);
+            put((byte) ',');
+            putCents(cents);
+            put((byte) ',');
+            putCsvField(category);
+            put((byte) ',');
+            put(type);
+            put((byte) ',');
+            putCsvField(account);
+            put((byte) ',');
+            put(currency);
+            put((byte) '\n');
+        }
+
+        private void writeJson(Integer id, long day, byte[] description, long cents, byte[] category,
+                               byte[] type, byte[] account, byte[] currency) throws IOException {
+            putAscii(first ? "{\"id\":" : ",\n{\"id\":");
+            if (id == null) {
+                putAscii("null");
+            } else {
+                putLong(id);
+            }
+            putAscii(",\"date\":\"");
+            putDate(day);
+            putAscii("\",\"description\":");
+            putJsonString(description);
+            putAscii(",\"amount\":");
+            putCents(cents);
+            putAscii(",\"category\":");
+            putJsonString(category);
+            putAscii(",\"type\":\"");
+            put(type);
+            putAscii("\",\"account\":");
+            putJsonString(account);
+            putAscii(",\"currency\":\"");
+            put(currency);
+            putAscii("\"}");
+        }
+
+        // Quoted only when it has to be, with "" for a quote, as CsvTransactionImporter expects.
+        // The bytes are UTF-8, where ASCII values never occur inside a multi-byte character.
+        private void putCsvField(byte[] value) throws IOException {
+            boolean quote = false;
+            for (byte b : value) {
+                if (b == ',' || b == '"' || b == '\n' || b == '\r') {
+                    quote = true;
+                    break;
+                }
+            }
+            if (!quote) {
+                put(value);
+                return;
+            }
+            put((byte) '"');
+            for (byte b : value) {
+                if (b == '"') {
+                    put((byte) '"');
+                }
+                put(b);
+            }
+            put((byte) '"');
+        }
+
+        private void putJsonString(byte[] value) throws IOException {
+            put((byte) '"');
+            int start = 0;
+            for (int i = 0; i < value.length; i++) {
+                int b = value[i] & 0xFF;
+                if (b == '"' || b == '\\' || b < 0x20) {
+                    put(value, start, i - start);
+                    put((byte) '\\');
+                    switch (b) {
+                        case '"' -> put((byte) '"');
+                        case '\\' -> put((byte) '\\');
+                        case '\n' -> put((byte) 'n');
+                        case '\r' -> put((byte) 'r');
+                        case '\t' -> put((byte) 't');
+                        default -> {
+                            putAscii("u00");
+                            put(HEX[b >> 4]);
+                            put(HEX[b & 0xF]);
+                        }
+                    }
+                    start = i + 1;
+                }
+            }
+            put(value, start, value.length - start);
+            put((byte) '"');
+        }
+
+        private void putDate(long epochDay) throws IOException {
+            if (epochDay != lastDay) {
+                lastDay = epochDay;
+                lastDate = LocalDate.ofEpochDay(epochDay).toString().getBytes(StandardCharsets.US_ASCII);
+            }
+            put(lastDate);
+        }
+
+        // Cents as a plain decimal with two places, without going through BigDecimal
+        private void putCents(long cents) throws IOException {
+            if (cents < 0) {
+                put((byte) '-');
+            }
+            long magnitude = Math.abs(cents);
+            putLong(magnitude / 100);
+            put((byte) '.');
+            put((byte) ('0' + magnitude / 10 % 10));
+            put((byte) ('0' + magnitude % 10));
+        }
+
+        private void putLong(long value) throws IOException {
+            putAscii(Long.toString(value));
+        }
+
+        private void putAscii(String text) throws IOException {
+            ensure(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                buffer.put((byte) text.charAt(i));
+            }
+        }
+
+        private void put(byte[] bytes) throws IOException {
+            put(bytes, 0, bytes.length);
+        }
+
+        private void put(byte[] bytes, int offset, int length) throws IOException {
+            if (length > buffer.capacity()) {
+                flush();
+                ByteBuffer large = ByteBuffer.wrap(bytes, offset, length);
+                while (large.hasRemaining()) {
+                    channel.write(large);
+                }
+                return;
+            }
+            ensure(length);
+            buffer.put(bytes, offset, length);
+        }
+
+        private void put(byte b) throws IOException {
+            ensure(1);
+            buffer.put(b);
+        }
+
+        private void ensure(int bytes) throws IOException {
+            if (buffer.remaining() < bytes) {
+                flush();
+            }
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+}
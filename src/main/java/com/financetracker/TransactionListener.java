@@ -19,7 +19,7 @@ import java.util.List;
 
 // TransactionListener Interface
 
+// Called on the event bus thread with the changes merged over one frame
 public interface TransactionListener {
-    void onTransactionAdded(Transaction transaction);
-    void onTransactionRemoved(Transaction transaction);
+    void onTransactionsChanged(TransactionChangeSet changes);
 }
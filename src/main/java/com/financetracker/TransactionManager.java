@@ -1,26 +1,139 @@
 package com.financetracker;
 
-import java.io.File;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
+// Reads go through Database's pool of read-only connections and may run concurrently;
+// writes are serialized on its single writer connection. UI code should use the *Async
+// variants, which run on background threads so the JavaFX thread never waits on SQLite.
 public class TransactionManager {
-    private final Connection connection;
+    private static final int IMPORT_BATCH_SIZE = 1000;
+
+    // Column order of the rows streamTransactions hands out
+    static final String STREAM_COLUMNS = "id, date, description, amount_cents, category, type, account, currency";
+
+    private static final String INSERT_SQL = "INSERT INTO transactions (date, description, amount_cents, category_id, type, "
+            + "account_id, currency, home_cents) VALUES (?, ?, ?, ?, ?, ?, ?, ?)";
+    // Only the most used descriptions are offered as completions
+    private static final int DESCRIPTION_SUGGESTIONS = 5000;
+    // Up to an eighth of the heap, at most 64 MB, for cached query results
+    private static final long QUERY_CACHE_BYTES = Math.min(64L << 20, Runtime.getRuntime().maxMemory() / 8);
+
+    // Receives the rows of streamTransactions: stored rows as the ResultSet positioned on
+    // them, recurring occurrences, which have no row, as transactions
+    public interface RowHandler {
+        void handle(ResultSet row) throws SQLException;
+
+        void handleOccurrence(Transaction occurrence);
+    }
+
+    private final Database database;
+    private final Path snapshotPath;
+
+    // Reads fan out over the reader pool; writes queue behind one thread
+    private final ExecutorService readExecutor = Executors.newFixedThreadPool(Database.READER_COUNT, runnable -> {
+        Thread thread = new Thread(runnable, "database-read");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final ExecutorService writeExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "database-write");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    // Running totals in home-currency cents, loaded once at startup and adjusted on every
+    // write. They have their own lock so reading them never waits behind a query.
+    private final Object totalsLock = new Object();
+    private long totalIncomeCents;
+    private long totalExpensesCents;
+    private int transactionCount;
+
+    // Primitive column copy of the ledger for analytics scans, loaded on first use
+    private final ColumnarTransactionStore columnarStore = new ColumnarTransactionStore();
+    private final AnalyticsEngine analyticsEngine = new AnalyticsEngine();
+
+    // Category ids by normalized name, and autocomplete for the add form. The category
+    // trie is built at startup, the description trie on first use; after that both are
+    // updated from writes and never query the database on a keystroke.
+    private final NameDictionary categories = new NameDictionary("categories");
+    private final NameDictionary accounts = new NameDictionary("accounts");
+    private final PrefixTrie categoryTrie = new PrefixTrie();
+    private final PrefixTrie descriptionTrie = new PrefixTrie();
+    private volatile boolean descriptionsLoaded;
+
+    // Aggregates saved by the last shutdown, while they still match the data; dropped on the first write
+    private volatile AggregateSnapshot snapshot;
+
+    // Results of repeated reads, tagged with dataVersion, which every write advances once
+    // it has committed. A read that overlaps a write is tagged with the version from before
+    // it, so it goes stale with that write rather than outliving it.
+    private final AtomicLong dataVersion = new AtomicLong();
+    private final QueryCache queryCache = new QueryCache(QUERY_CACHE_BYTES);
+
+    // The recurring rules, loaded at startup and replaced whenever one is added or removed.
+    // Their occurrences are added to the figures read from stored rows: those up to today
+    // to whole-ledger totals, those in the range asked for to ranges and trends.
+    private volatile RecurringSchedule schedule = RecurringSchedule.EMPTY;
+
+    // This month's spend against each category budget. Reloaded under the write lock, and
+    // single-row writes apply themselves to it under that same lock, so none is missed
+    // or counted twice.
+    private final BudgetTracker budgets = new BudgetTracker();
+    private final List<BudgetListener> budgetListeners = new CopyOnWriteArrayList<>();
+
+    // Daily exchange rates, loaded at startup and replaced by an import, and the currency
+    // the summary and dashboard figures are reported in
+    private volatile FxRateTable rates = FxRateTable.EMPTY;
+    private volatile String reportingCurrency = Transaction.HOME_CURRENCY;
 
     public TransactionManager() {
+        // Don't need to create directories for a file in root project folder
+        this("finance_tracker.sqlite");
+    }
+
+    public TransactionManager(String databasePath) {
         try {
             // Load the SQLite JDBC driver
             Class.forName("org.sqlite.JDBC");
 
-            // Don't need to create directories for a file in root project folder
-            String url = "jdbc:sqlite:finance_tracker.sqlite";
-            this.connection = DriverManager.getConnection(url);
+            // Opens the connections and brings the schema up to date
+            this.database = new Database(databasePath);
+            this.snapshotPath = Paths.get(databasePath + ".snapshot");
 
-            // Create table if it doesn't exist
-            createTableIfNotExists();
+            // Take the running totals from the saved snapshot if it is current, otherwise
+            // add them up from the yearly rollup
+            if (!loadSnapshot()) {
+                loadTotals();
+            }
+            loadCategories();
+            loadFxRates();
+            loadRecurringRules();
+            loadBudgets();
         } catch (ClassNotFoundException e) {
             e.printStackTrace();
             throw new RuntimeException("SQLite JDBC driver not found: " + e.getMessage());
@@ -30,124 +143,1721 @@ public class TransactionManager {
         }
     }
 
-    private List<TransactionListener> listeners = new ArrayList<>();
+    private final TransactionEventBus eventBus = new TransactionEventBus();
 
     public void addTransactionListener(TransactionListener listener) {
-        listeners.add(listener);
+        eventBus.subscribe(listener);
+    }
+
+    public void removeTransactionListener(TransactionListener listener) {
+        eventBus.unsubscribe(listener);
+    }
+
+    // The rollup has a row per year, category and type, so this reads a few hundred rows
+    // rather than the whole table, and matches it exactly since triggers keep it current
+    private void loadTotals() throws SQLException {
+        String sql = "SELECT type, SUM(total_cents) AS total, SUM(count) AS count FROM rollup_yearly GROUP BY type";
+
+        DatabaseCall call = DatabaseCall.start("loadTotals", sql);
+        int rows = database.read(connection -> {
+            int groups = 0;
+            try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    groups++;
+                    long total = rs.getLong("total");
+                    if (Transaction.TransactionType.valueOf(rs.getString("type")) == Transaction.TransactionType.INCOME) {
+                        totalIncomeCents = total;
+                    } else {
+                        totalExpensesCents = total;
+                    }
+                    transactionCount += rs.getInt("count");
+                }
+            }
+            return groups;
+        });
+        call.finish(rows);
+    }
+
+    private boolean loadSnapshot() throws SQLException {
+        AggregateSnapshot saved;
+        try {
+            saved = AggregateSnapshot.read(snapshotPath);
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            System.err.println("Ignoring snapshot: " + e.getMessage());
+            return false;
+        }
+
+        long[] version = readDataVersion();
+        if (saved.getDatabaseId() != version[0] || saved.getDataVersion() != version[1]) {
+            return false;
+        }
+        synchronized (totalsLock) {
+            totalIncomeCents = saved.getIncomeCents();
+            totalExpensesCents = saved.getExpenseCents();
+            transactionCount = saved.getTransactionCount();
+        }
+        snapshot = saved;
+        return true;
+    }
+
+    // { database id, data version } from the meta table
+    private long[] readDataVersion() throws SQLException {
+        String sql = "SELECT key, value FROM meta WHERE key IN ('database_id', 'data_version')";
+        return database.read(connection -> {
+            long[] version = new long[2];
+            try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    version[rs.getString("key").equals("database_id") ? 0 : 1] = rs.getLong("value");
+                }
+            }
+            return version;
+        });
+    }
+
+    // The snapshot loaded at startup, or null if there was none or the data has changed since
+    public AggregateSnapshot getSnapshot() {
+        return snapshot;
+    }
+
+    // Saves the current aggregates for the next start. Everything is read from the rollup
+    // tables while holding the write lock, so the figures and the version tag agree.
+    public void saveSnapshot() throws IOException {
+        String totalsSql = "SELECT type, SUM(total_cents) AS total, SUM(count) AS count FROM rollup_yearly GROUP BY type";
+
+        AggregateSnapshot current;
+        try {
+            current = database.write(connection -> {
+                long[] version = readDataVersion();
+                long[] typeTotals = new long[2];
+                int count = 0;
+                try (ResultSet rs = connection.prepare(totalsSql).executeQuery()) {
+                    while (rs.next()) {
+                        boolean income = Transaction.TransactionType.valueOf(rs.getString("type")) == Transaction.TransactionType.INCOME;
+                        typeTotals[income ? 0 : 1] = rs.getLong("total");
+                        count += rs.getInt("count");
+                    }
+                }
+                Map<Transaction.TransactionType, Map<String, BigDecimal>> categoryTotals = new EnumMap<>(Transaction.TransactionType.class);
+                for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+                    categoryTotals.put(type, readCategoryTotals(type));
+                }
+                return new AggregateSnapshot(version[0], version[1], typeTotals[0], typeTotals[1], count,
+                        categoryTotals, readMonthlyTotals());
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading aggregates for snapshot: " + e.getMessage());
+        }
+        Files.createDirectories(snapshotPath.toAbsolutePath().getParent());
+        current.write(snapshotPath);
+    }
+
+    private void loadCategories() throws SQLException {
+        String sql = """
+        SELECT c.name, COALESCE(SUM(r.count), 0) AS uses
+        FROM categories c
+        LEFT JOIN rollup_yearly r ON r.category_id = c.id
+        GROUP BY c.id
+        """;
+
+        DatabaseCall call = DatabaseCall.start("loadCategories", sql);
+        int rows = database.read(connection -> {
+            categories.load(connection);
+            accounts.load(connection);
+            categoryTrie.clear();
+            int count = 0;
+            try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    categoryTrie.add(rs.getString("name"), Math.max(1, rs.getInt("uses")));
+                    count++;
+                }
+            }
+            return count;
+        });
+        call.finish(rows);
+    }
+
+    // After a rolled back write the dictionaries may hold names that were never committed
+    private void reloadCategories() {
+        try {
+            loadCategories();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private void loadRecurringRules() throws SQLException {
+        String sql = """
+        SELECT r.id, r.description, r.amount_cents, c.name AS category, r.type, r.unit, r.interval,
+               r.start_date, r.end_date
+        FROM recurring_rules r
+        JOIN categories c ON c.id = r.category_id
+        ORDER BY r.id
+        """;
+
+        DatabaseCall call = DatabaseCall.start("loadRecurringRules", sql);
+        List<RecurringRule> rules = database.read(connection -> {
+            List<RecurringRule> rows = new ArrayList<>();
+            try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                while (rs.next()) {
+                    long endDay = rs.getLong("end_date");
+                    LocalDate end = rs.wasNull() ? null : LocalDate.ofEpochDay(endDay);
+                    rows.add(new RecurringRule(
+                            rs.getInt("id"),
+                            rs.getString("description"),
+                            Money.fromCents(rs.getLong("amount_cents")),
+                            rs.getString("category"),
+                            Transaction.TransactionType.valueOf(rs.getString("type")),
+                            RecurringRule.Unit.valueOf(rs.getString("unit")),
+                            rs.getInt("interval"),
+                            LocalDate.ofEpochDay(rs.getLong("start_date")),
+                            end));
+                }
+            }
+            return rows;
+        });
+        schedule = new RecurringSchedule(rules);
+        call.finish(rules.size());
     }
 
-    public void notifyTransactionAdded(Transaction transaction) {
-        for (TransactionListener listener : listeners) {
-            listener.onTransactionAdded(transaction);
+    // Stores a rule and returns its id. Its occurrences show up in every query and
+    // aggregate from then on, without a row being written for any of them.
+    public int addRecurringRule(RecurringRule rule) {
+        String sql = """
+        INSERT INTO recurring_rules (description, amount_cents, category_id, type, unit, interval, start_date, end_date)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        """;
+
+        DatabaseCall call = DatabaseCall.start("addRecurringRule", sql);
+        try {
+            int id = database.write(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setString(1, rule.getDescription());
+                pstmt.setLong(2, Money.toCents(rule.getAmount()));
+                pstmt.setInt(3, categories.idFor(connection, rule.getCategory()));
+                pstmt.setString(4, rule.getType().toString());
+                pstmt.setString(5, rule.getUnit().toString());
+                pstmt.setInt(6, rule.getInterval());
+                pstmt.setLong(7, rule.getStart().toEpochDay());
+                if (rule.getEnd() == null) {
+                    pstmt.setNull(8, Types.INTEGER);
+                } else {
+                    pstmt.setLong(8, rule.getEnd().toEpochDay());
+                }
+                pstmt.executeUpdate();
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    return keys.next() ? keys.getInt(1) : -1;
+                }
+            });
+            call.finish(1);
+            rulesChanged();
+            categoryTrie.add(categories.displayName(rule.getCategory()), 1);
+            return id;
+        } catch (SQLException e) {
+            reloadCategories();
+            throw new RuntimeException("Error adding recurring rule: " + e.getMessage());
         }
     }
 
-    public void notifyTransactionRemoved(Transaction transaction) {
-        for (TransactionListener listener : listeners) {
-            listener.onTransactionRemoved(transaction);
+    // Returns whether a rule with that id existed
+    public boolean removeRecurringRule(int ruleId) {
+        String sql = "DELETE FROM recurring_rules WHERE id = ?";
+
+        DatabaseCall call = DatabaseCall.start("removeRecurringRule", sql);
+        try {
+            int removed = database.write(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setInt(1, ruleId);
+                return pstmt.executeUpdate();
+            });
+            call.finish(removed);
+            if (removed > 0) {
+                rulesChanged();
+            }
+            return removed > 0;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error removing recurring rule: " + e.getMessage());
         }
     }
 
+    private void rulesChanged() throws SQLException {
+        loadRecurringRules();
+        dataChanged();
+        eventBus.publishBulkChange();
+        notifyBudgetListeners(loadBudgets());
+    }
+
+    public List<RecurringRule> getRecurringRules() {
+        return schedule.getRules();
+    }
+
+    // Reads every budget with this month's spend from the monthly rollup, plus recurring
+    // occurrences so far this month, and returns the thresholds reached since the last load.
+    // It reads on a read connection, so a row added or removed meanwhile may or may not be
+    // in the figures; if one was, the read is repeated.
+    private List<BudgetTracker.Alert> loadBudgets() throws SQLException {
+        String sql = """
+        SELECT c.name AS category, b.limit_cents, COALESCE(SUM(r.total_cents), 0) AS spent
+        FROM budgets b
+        JOIN categories c ON c.id = b.category_id
+        LEFT JOIN rollup_monthly r ON r.category_id = b.category_id AND r.year = ? AND r.month = ? AND r.type = 'EXPENSE'
+        GROUP BY b.category_id
+        """;
+
+        DatabaseCall call = DatabaseCall.start("loadBudgets", sql);
+        LocalDate today = LocalDate.now();
+        List<BudgetTracker.Alert> alerts;
+        do {
+            long applied = budgets.getAppliedCount();
+            Map<String, long[]> figures = database.read(connection -> readBudgetFigures(connection, sql, today));
+            alerts = budgets.resetIfUnchanged(applied, today, figures);
+        } while (alerts == null);
+        call.finish(alerts.size());
+        return alerts;
+    }
+
+    // { limit cents, spent cents } by category name
+    private Map<String, long[]> readBudgetFigures(PooledConnection connection, String sql, LocalDate today) throws SQLException {
+        Map<String, long[]> figures = new HashMap<>();
+        PreparedStatement pstmt = connection.prepare(sql);
+        pstmt.setInt(1, today.getYear());
+        pstmt.setInt(2, today.getMonthValue());
+        try (ResultSet rs = pstmt.executeQuery()) {
+            while (rs.next()) {
+                figures.put(rs.getString("category"), new long[] {rs.getLong("limit_cents"), rs.getLong("spent")});
+            }
+        }
+        for (RecurringRule rule : schedule.getRules()) {
+            long[] budget = figures.get(categories.displayName(rule.getCategory()));
+            if (budget != null && rule.getType() == Transaction.TransactionType.EXPENSE) {
+                budget[1] += Money.toCents(rule.getAmount()) * rule.countBetween(today.withDayOfMonth(1), today);
+            }
+        }
+        return figures;
+    }
+
+    private void reloadBudgets() {
+        try {
+            notifyBudgetListeners(loadBudgets());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // The first call on a new day starts from fresh figures, which also moves to a new month
+    private void ensureBudgetsCurrent() {
+        if (!budgets.isCurrent(LocalDate.now())) {
+            reloadBudgets();
+        }
+    }
+
+    private void notifyBudgetListeners(List<BudgetTracker.Alert> alerts) {
+        for (BudgetTracker.Alert alert : alerts) {
+            for (BudgetListener listener : budgetListeners) {
+                try {
+                    listener.onBudgetThresholdCrossed(alert.status(), alert.thresholdPercent());
+                } catch (RuntimeException e) {
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    private void notifyBudgetsChanged() {
+        for (BudgetListener listener : budgetListeners) {
+            try {
+                listener.onBudgetsChanged();
+            } catch (RuntimeException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    public void addBudgetListener(BudgetListener listener) {
+        if (!budgetListeners.contains(listener)) {
+            budgetListeners.add(listener);
+        }
+    }
+
+    public void removeBudgetListener(BudgetListener listener) {
+        budgetListeners.remove(listener);
+    }
 
-    private void createTableIfNotExists() {
+    // Sets or replaces a category's monthly spending limit
+    public void setBudget(String category, BigDecimal monthlyLimit) {
+        if (monthlyLimit.signum() <= 0) {
+            throw new IllegalArgumentException("A budget must be more than zero: " + monthlyLimit);
+        }
         String sql = """
-        CREATE TABLE IF NOT EXISTS transactions (
-            id INTEGER PRIMARY KEY AUTOINCREMENT,
-            date TEXT NOT NULL,
-            description TEXT NOT NULL,
-            amount DECIMAL(10,2) NOT NULL,
-            category TEXT NOT NULL,
-            type TEXT NOT NULL
-        )
+        INSERT INTO budgets (category_id, limit_cents) VALUES (?, ?)
+        ON CONFLICT (category_id) DO UPDATE SET limit_cents = excluded.limit_cents
         """;
 
-        try (Statement stmt = connection.createStatement()) {
-            stmt.execute(sql);
+        DatabaseCall call = DatabaseCall.start("setBudget", sql);
+        try {
+            database.write(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setInt(1, categories.idFor(connection, category));
+                pstmt.setLong(2, Money.toCents(monthlyLimit));
+                return pstmt.executeUpdate();
+            });
+            call.finish(1);
+            notifyBudgetListeners(loadBudgets());
+            notifyBudgetsChanged();
         } catch (SQLException e) {
-            throw new RuntimeException("Error creating transactions table: " + e.getMessage());
+            reloadCategories();
+            throw new RuntimeException("Error setting budget: " + e.getMessage());
         }
     }
 
-    public void addTransaction(Transaction transaction) {
-        String sql = "INSERT INTO transactions (date, description, amount, category, type) VALUES (?, ?, ?, ?, ?)";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setString(1, transaction.getDate().toString());
-            pstmt.setString(2, transaction.getDescription());
-            pstmt.setBigDecimal(3, transaction.getAmount());
-            pstmt.setString(4, transaction.getCategory());
-            pstmt.setString(5, transaction.getType().toString());
-            pstmt.executeUpdate();
+    // Returns whether the category had a budget
+    public boolean removeBudget(String category) {
+        String sql = "DELETE FROM budgets WHERE category_id = (SELECT id FROM categories WHERE normalized = ?)";
 
-            // Notify listeners after adding the transaction
-            notifyTransactionAdded(transaction);
+        DatabaseCall call = DatabaseCall.start("removeBudget", sql);
+        try {
+            int removed = database.write(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setString(1, NameDictionary.normalize(category));
+                return pstmt.executeUpdate();
+            });
+            call.finish(removed);
+            if (removed == 0) {
+                return false;
+            }
+            notifyBudgetListeners(loadBudgets());
+            notifyBudgetsChanged();
+            return true;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error removing budget: " + e.getMessage());
+        }
+    }
+
+    // Every budget with this month's spend, most used first; from memory
+    public List<BudgetStatus> getBudgetStatuses() {
+        ensureBudgetsCurrent();
+        return budgets.getStatuses();
+    }
+
+    // Called after every committed write
+    private void dataChanged() {
+        snapshot = null;
+        dataVersion.incrementAndGet();
+    }
+
+    private void applyDelta(Transaction.TransactionType type, long homeCents, int count) {
+        dataChanged();
+        synchronized (totalsLock) {
+            transactionCount += count;
+            if (type == Transaction.TransactionType.INCOME) {
+                totalIncomeCents += homeCents;
+            } else {
+                totalExpensesCents += homeCents;
+            }
+        }
+    }
+
+    // Returns the row's amount in home-currency cents, at its day's rate, which is what the
+    // rollups and running totals add up. Rejects a currency without exchange rates, which
+    // no figure could be converted from. Called under the write lock, so rates cannot
+    // change between here and the insert.
+    private long bindInsert(PooledConnection connection, PreparedStatement pstmt, Transaction transaction) throws SQLException {
+        requireRates(transaction.getCurrency());
+        long cents = Money.toCents(transaction.getAmount());
+        pstmt.setLong(1, transaction.getDate().toEpochDay());
+        pstmt.setString(2, transaction.getDescription());
+        pstmt.setLong(3, cents);
+        pstmt.setInt(4, categories.idFor(connection, transaction.getCategory()));
+        pstmt.setString(5, transaction.getType().toString());
+        pstmt.setInt(6, accounts.idFor(connection, accountOf(transaction)));
+        pstmt.setString(7, transaction.getCurrency());
+        if (transaction.getCurrency().equals(Transaction.HOME_CURRENCY)) {
+            pstmt.setNull(8, Types.INTEGER);
+            return cents;
+        }
+        long homeCents = rates.toHomeCents(cents, transaction.getCurrency(), transaction.getDate());
+        pstmt.setLong(8, homeCents);
+        return homeCents;
+    }
+
+    private static String accountOf(Transaction transaction) {
+        return transaction.getAccount() != null ? transaction.getAccount() : Transaction.DEFAULT_ACCOUNT;
+    }
+
+    private void requireRates(String currency) {
+        if (!rates.hasRates(currency)) {
+            throw new IllegalArgumentException("No exchange rates for " + currency + "; import them first");
+        }
+    }
+
+    // Returns the new row's id, or -1 if the insert failed. A currency without exchange
+    // rates is rejected with an IllegalArgumentException before anything is written.
+    public int addTransaction(Transaction transaction) {
+        requireRates(transaction.getCurrency());
+        DatabaseCall call = DatabaseCall.start("addTransaction", INSERT_SQL);
+        BudgetTracker.Alert[] alert = new BudgetTracker.Alert[1];
+        long[] homeCents = new long[1];
+        try {
+            ensureBudgetsCurrent();
+            int id = database.write(connection -> {
+                PreparedStatement pstmt = connection.prepare(INSERT_SQL);
+                homeCents[0] = bindInsert(connection, pstmt, transaction);
+                pstmt.executeUpdate();
+                int generatedId;
+                try (ResultSet keys = pstmt.getGeneratedKeys()) {
+                    generatedId = keys.next() ? keys.getInt(1) : -1;
+                }
+                columnarStore.append(generatedId, transaction.getDate().toEpochDay(),
+                        Money.toCents(transaction.getAmount()), categories.displayName(transaction.getCategory()),
+                        transaction.getType(), transaction.getCurrency());
+                alert[0] = budgets.apply(transaction, homeCents[0], 1);
+                return generatedId;
+            });
+            applyDelta(transaction.getType(), homeCents[0], 1);
+            call.finish(1);
+            if (alert[0] != null) {
+                notifyBudgetListeners(List.of(alert[0]));
+            }
+
+            String category = categories.displayName(transaction.getCategory());
+            categoryTrie.add(category, 1);
+            if (descriptionsLoaded) {
+                descriptionTrie.add(transaction.getDescription(), 1);
+            }
+
+            // Notify listeners after adding the transaction, with its new id and stored spellings
+            eventBus.publishAdded(new Transaction(id, transaction.getDate(), transaction.getDescription(),
+                    transaction.getAmount(), category, transaction.getType(),
+                    accounts.displayName(accountOf(transaction)), transaction.getCurrency()));
+            return id;
         } catch (SQLException e) {
             e.printStackTrace();
+            return -1;
+        }
+    }
+
+    public int addTransactions(Collection<Transaction> transactions) {
+        return addTransactions(transactions.iterator());
+    }
+
+    // Bulk insert: one prepared statement, JDBC batches, a single commit and one change event.
+    // A row in a currency without exchange rates rolls the whole import back with an
+    // IllegalArgumentException.
+    public int addTransactions(Iterator<Transaction> transactions) {
+        long[] typeTotals = new long[2];
+        Map<String, Integer> categoryUses = new HashMap<>();
+        int count;
+
+        DatabaseCall call = DatabaseCall.start("addTransactions", INSERT_SQL);
+        try {
+            count = database.writeInTransaction(connection -> {
+                PreparedStatement pstmt = connection.prepare(INSERT_SQL);
+                int rows = 0;
+                while (transactions.hasNext()) {
+                    Transaction transaction = transactions.next();
+                    long homeCents = bindInsert(connection, pstmt, transaction);
+                    pstmt.addBatch();
+
+                    typeTotals[transaction.getType() == Transaction.TransactionType.INCOME ? 0 : 1] += homeCents;
+                    categoryUses.merge(transaction.getCategory(), 1, Integer::sum);
+                    if (++rows % IMPORT_BATCH_SIZE == 0) {
+                        pstmt.executeBatch();
+                    }
+                }
+                pstmt.executeBatch();
+                // Picks the new rows up by id while the write lock still keeps other writers out
+                columnarStore.catchUp(connection);
+                return rows;
+            });
+        } catch (SQLException e) {
+            // The store may hold rows whose commit then failed
+            columnarStore.unload();
+            reloadCategories();
+            throw new RuntimeException("Error importing transactions: " + e.getMessage());
+        } catch (RuntimeException e) {
+            reloadCategories();
+            throw e;
+        }
+        call.finish(count);
+
+        if (count > 0) {
+            dataChanged();
+            synchronized (totalsLock) {
+                transactionCount += count;
+                totalIncomeCents += typeTotals[0];
+                totalExpensesCents += typeTotals[1];
+            }
+            categoryUses.forEach((category, uses) -> categoryTrie.add(categories.displayName(category), uses));
+            // Rebuilt on next use rather than growing by every imported description
+            descriptionsLoaded = false;
+            eventBus.publishBulkChange();
+            // One read of the monthly rollup instead of a lookup per imported row
+            reloadBudgets();
         }
+        return count;
     }
 
-    public void removeTransaction(int transactionId) {
+    // Returns whether a row with that id existed
+    public boolean removeTransaction(int transactionId) {
+        // Look up the row first so it can be taken off the running totals and sent to listeners
+        String selectSql = "SELECT * FROM transaction_rows WHERE id = ?";
         String sql = "DELETE FROM transactions WHERE id = ?";
-        try (PreparedStatement pstmt = connection.prepareStatement(sql)) {
-            pstmt.setInt(1, transactionId);
-            pstmt.executeUpdate();
+        DatabaseCall call = DatabaseCall.start("removeTransaction", sql);
+        try {
+            ensureBudgetsCurrent();
+            Transaction removed = database.write(connection -> {
+                PreparedStatement select = connection.prepare(selectSql);
+                select.setInt(1, transactionId);
+                Transaction row;
+                long homeCents;
+                try (ResultSet rs = select.executeQuery()) {
+                    if (!rs.next()) {
+                        return null;
+                    }
+                    row = mapTransaction(rs);
+                    homeCents = rs.getLong("home_cents");
+                }
+
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setInt(1, transactionId);
+                if (pstmt.executeUpdate() == 0) {
+                    return null;
+                }
+                columnarStore.remove(transactionId);
+                budgets.apply(row, homeCents, -1);
+                applyDelta(row.getType(), -homeCents, -1);
+                return row;
+            });
+            call.finish(removed != null ? 1 : 0);
 
-            // Notify listeners after removing the transaction
-            notifyTransactionRemoved(new Transaction(transactionId, LocalDate.now(), "", BigDecimal.ZERO, "", Transaction.TransactionType.EXPENSE));
+            // Notify listeners with the deleted row's real data
+            if (removed != null) {
+                eventBus.publishRemoved(removed);
+            }
+            return removed != null;
         } catch (SQLException e) {
             e.printStackTrace();
+            return false;
         }
     }
 
     public List<Transaction> getAllTransactions() {
-        List<Transaction> transactions = new ArrayList<>();
-        String sql = "SELECT * FROM transactions ORDER BY date DESC";
+        return cached(QueryCache.Key.of("getAllTransactions"), () -> Collections.unmodifiableList(readAllTransactions()));
+    }
 
-        try (Statement stmt = connection.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
+    private List<Transaction> readAllTransactions() {
+        String sql = "SELECT * FROM transaction_rows ORDER BY date DESC, id DESC";
 
-            while (rs.next()) {
-                Transaction transaction = new Transaction(
-                        rs.getInt("id"),  // Add this line
-                        LocalDate.parse(rs.getString("date")),
-                        rs.getString("description"),
-                        rs.getBigDecimal("amount"),
-                        rs.getString("category"),
-                        Transaction.TransactionType.valueOf(rs.getString("type"))
-                );
-                transactions.add(transaction);
+        DatabaseCall call = DatabaseCall.start("getAllTransactions", sql);
+        try {
+            List<Transaction> transactions = database.read(connection -> {
+                List<Transaction> rows = new ArrayList<>();
+                try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                    mapAll(rs, rows, call);
+                }
+                return rows;
+            });
+            call.finish(transactions.size());
+            return transactions;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving transactions: " + e.getMessage());
+        }
+    }
+
+    // Stored rows and recurring occurrences between two dates (inclusive), oldest first.
+    // Both come sorted by date and are merged, rows before occurrences on the same day.
+    public List<Transaction> getTransactionsBetween(LocalDate from, LocalDate to) {
+        RecurringSchedule current = schedule;
+        return cached(QueryCache.Key.of("getTransactionsBetween", from, to), () -> {
+            List<Transaction> rows = readTransactionsBetween(from, to);
+            List<Transaction> occurrences = current.occurrences(from, to);
+            if (occurrences.isEmpty()) {
+                return Collections.unmodifiableList(rows);
             }
+            List<Transaction> merged = new ArrayList<>(rows.size() + occurrences.size());
+            int r = 0;
+            int o = 0;
+            while (r < rows.size() || o < occurrences.size()) {
+                if (o == occurrences.size()
+                        || (r < rows.size() && !rows.get(r).getDate().isAfter(occurrences.get(o).getDate()))) {
+                    merged.add(rows.get(r++));
+                } else {
+                    merged.add(occurrences.get(o++));
+                }
+            }
+            return Collections.unmodifiableList(merged);
+        });
+    }
+
+    private List<Transaction> readTransactionsBetween(LocalDate from, LocalDate to) {
+        String sql = "SELECT * FROM transaction_rows WHERE date BETWEEN ? AND ? ORDER BY date, id";
+
+        DatabaseCall call = DatabaseCall.start("getTransactionsBetween", sql);
+        try {
+            List<Transaction> transactions = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setLong(1, from.toEpochDay());
+                pstmt.setLong(2, to.toEpochDay());
+                List<Transaction> rows = new ArrayList<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    mapAll(rs, rows, call);
+                }
+                return rows;
+            });
+            call.finish(transactions.size());
+            return transactions;
         } catch (SQLException e) {
             throw new RuntimeException("Error retrieving transactions: " + e.getMessage());
         }
-        return transactions;
     }
 
-    public FinancialSummary getFinancialSummary() {
-        BigDecimal totalIncome = BigDecimal.ZERO;
-        BigDecimal totalExpenses = BigDecimal.ZERO;
+    // Keyset pagination: the next page of rows strictly after the cursor, newest first
+    public List<Transaction> getTransactionsPage(TransactionCursor after, int limit) {
+        String sql = after == null
+                ? "SELECT * FROM transaction_rows ORDER BY date DESC, id DESC LIMIT ?"
+                : "SELECT * FROM transaction_rows WHERE (date, id) < (?, ?) ORDER BY date DESC, id DESC LIMIT ?";
+
+        DatabaseCall call = DatabaseCall.start("getTransactionsPage", sql);
+        try {
+            List<Transaction> page = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                int index = 1;
+                if (after != null) {
+                    pstmt.setLong(index++, after.getDate().toEpochDay());
+                    pstmt.setInt(index++, after.getId());
+                }
+                pstmt.setInt(index, limit);
+
+                List<Transaction> rows = new ArrayList<>(limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    mapAll(rs, rows, call);
+                }
+                return rows;
+            });
+            call.finish(page.size());
+            return page;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving transaction page: " + e.getMessage());
+        }
+    }
+
+    // Key of the row at a position, read from the date index without loading rows
+    public TransactionCursor getCursorAt(int position) {
+        String sql = "SELECT date, id FROM transactions ORDER BY date DESC, id DESC LIMIT 1 OFFSET ?";
+
+        DatabaseCall call = DatabaseCall.start("getCursorAt", sql);
+        try {
+            TransactionCursor cursor = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setInt(1, position);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? new TransactionCursor(LocalDate.ofEpochDay(rs.getLong("date")), rs.getInt("id")) : null;
+                }
+            });
+            call.finish(cursor == null ? 0 : 1);
+            return cursor;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeking transaction cursor: " + e.getMessage());
+        }
+    }
+
+    // One page of the rows matching a query, in its sort order, strictly after the given
+    // row (null for the first page). Seeking by (sort key, id) keeps every page as cheap
+    // as the first however deep the table is scrolled. Recurring occurrences that match
+    // are merged in (see occurrencesFor).
+    public List<Transaction> findTransactions(TransactionQuery query, Transaction after, int limit) {
+        // Rows are never updated in place, so the id stands for the whole row in the key;
+        // occurrences share their rule's id, so the date goes in too
+        QueryCache.Key key = QueryCache.Key.of("findTransactions", query,
+                after == null ? null : after.getId(), after == null ? null : after.getDate(), limit);
+        return cached(key, () -> {
+            List<Transaction> rows = readTransactions(query, after, limit);
+            List<Transaction> occurrences = occurrencesAfter(query, after);
+            return Collections.unmodifiableList(occurrences.isEmpty() ? rows : merge(rows, occurrences, query.comparator(), limit));
+        });
+    }
+
+    // Recurring occurrences passing a query's filters, in its order: from its first day, or
+    // each rule's start, through its last day, or through today when it has none, as the
+    // totals count them. Occurrences are not stored, so they are generated and filtered here.
+    private List<Transaction> occurrencesFor(TransactionQuery query) {
+        RecurringSchedule current = schedule;
+        if (current.isEmpty()) {
+            return List.of();
+        }
+        LocalDate today = LocalDate.now();
+        return cached(QueryCache.Key.of("occurrencesFor", query, today), () -> {
+            List<Transaction> occurrences = new ArrayList<>();
+            for (Transaction occurrence : current.occurrences(query.getFrom(), query.getTo() != null ? query.getTo() : today)) {
+                if (query.matches(occurrence)) {
+                    occurrences.add(occurrence);
+                }
+            }
+            occurrences.sort(query.comparator());
+            return Collections.unmodifiableList(occurrences);
+        });
+    }
+
+    // The matching occurrences strictly after a row or occurrence in the query's order
+    private List<Transaction> occurrencesAfter(TransactionQuery query, Transaction after) {
+        List<Transaction> occurrences = occurrencesFor(query);
+        if (after == null || occurrences.isEmpty()) {
+            return occurrences;
+        }
+        int index = Collections.binarySearch(occurrences, after, query.comparator());
+        return occurrences.subList(index >= 0 ? index + 1 : -index - 1, occurrences.size());
+    }
 
-        for (Transaction transaction : getAllTransactions()) {
-            if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                totalIncome = totalIncome.add(transaction.getAmount());
+    // The first limit of two lists sorted in the same order, merged
+    private static List<Transaction> merge(List<Transaction> rows, List<Transaction> occurrences,
+                                           Comparator<Transaction> order, int limit) {
+        List<Transaction> merged = new ArrayList<>(Math.min(limit, rows.size() + occurrences.size()));
+        int r = 0;
+        int o = 0;
+        while (merged.size() < limit && (r < rows.size() || o < occurrences.size())) {
+            if (o == occurrences.size() || (r < rows.size() && order.compare(rows.get(r), occurrences.get(o)) < 0)) {
+                merged.add(rows.get(r++));
             } else {
-                totalExpenses = totalExpenses.add(transaction.getAmount());
+                merged.add(occurrences.get(o++));
             }
         }
-        return new FinancialSummary(totalIncome, totalExpenses);
+        return merged;
     }
 
-    // Make sure to close the connection when done
-    public void close() {
+    private List<Transaction> readTransactions(TransactionQuery query, Transaction after, int limit) {
+        String sql = "SELECT * FROM transaction_rows" + query.whereClause(after != null) + query.orderByClause() + " LIMIT ?";
+
+        DatabaseCall call = DatabaseCall.start("findTransactions", sql);
+        try {
+            List<Transaction> page = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                int index = query.bindFilters(pstmt, 1);
+                if (after != null) {
+                    index = query.bindSeek(pstmt, index, after);
+                }
+                pstmt.setInt(index, limit);
+
+                List<Transaction> rows = new ArrayList<>(limit);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    mapAll(rs, rows, call);
+                }
+                return rows;
+            });
+            call.finish(page.size());
+            return page;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error querying transactions: " + e.getMessage());
+        }
+    }
+
+    // Streams every row matching a query to the action, one at a time, without building a
+    // list; returns the number of rows. Runs on one reader connection for its whole length.
+    // Stored rows only: this is how SqliteTransactionStore reads itself back.
+    public int forEachTransaction(TransactionQuery query, Consumer<Transaction> action) {
+        String sql = "SELECT * FROM transaction_rows" + query.whereClause(false) + query.orderByClause();
+
+        DatabaseCall call = DatabaseCall.start("forEachTransaction", sql);
+        try {
+            int rows = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                query.bindFilters(pstmt, 1);
+                int count = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        action.accept(mapTransaction(rs));
+                        count++;
+                    }
+                }
+                return count;
+            });
+            call.finish(rows);
+            return rows;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading transactions: " + e.getMessage());
+        }
+    }
+
+    // Streams the raw columns (STREAM_COLUMNS) of every row matching a query, in its order,
+    // fetching fetchSize rows at a time and building no objects, for exports of any size.
+    // Matching recurring occurrences go to the handler in their place in that order.
+    // Holds one reader connection, and so one consistent view of the data, until it returns.
+    public int streamTransactions(TransactionQuery query, int fetchSize, RowHandler handler) {
+        String sql = "SELECT " + STREAM_COLUMNS + " FROM transaction_rows" + query.whereClause(false) + query.orderByClause();
+        List<Transaction> occurrences = occurrencesFor(query);
+        TransactionQuery.SortColumn sortColumn = query.getSortColumn();
+
+        DatabaseCall call = DatabaseCall.start("streamTransactions", sql);
+        try {
+            int rows = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setFetchSize(fetchSize);
+                query.bindFilters(pstmt, 1);
+                int count = 0;
+                int next = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        if (next < occurrences.size()) {
+                            Object key = sortColumn.keyOf(rs);
+                            int id = rs.getInt("id");
+                            while (next < occurrences.size() && query.compare(
+                                    sortColumn.keyOf(occurrences.get(next)), occurrences.get(next).getId(), key, id) < 0) {
+                                handler.handleOccurrence(occurrences.get(next++));
+                                count++;
+                            }
+                        }
+                        handler.handle(rs);
+                        count++;
+                    }
+                }
+                while (next < occurrences.size()) {
+                    handler.handleOccurrence(occurrences.get(next++));
+                    count++;
+                }
+                return count;
+            });
+            call.finish(rows);
+            return rows;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error reading transactions: " + e.getMessage());
+        }
+    }
+
+    // The row at a position in a query's order, used to start seeking from an arbitrary page.
+    // Counts matching recurring occurrences, as findTransactions merges them in.
+    public Transaction findTransactionAt(TransactionQuery query, int position) {
+        return cached(QueryCache.Key.of("findTransactionAt", query, position), () -> {
+            List<Transaction> occurrences = occurrencesFor(query);
+            return occurrences.isEmpty() ? readTransactionAt(query, position) : mergedTransactionAt(query, occurrences, position);
+        });
+    }
+
+    // The first position + 1 transactions hold some j occurrences and the first rows after
+    // that; j is found by bisection, each step reading a row or two by offset. Null past the
+    // end, or if rows vanish while it looks.
+    private Transaction mergedTransactionAt(TransactionQuery query, List<Transaction> occurrences, int position) {
+        Comparator<Transaction> order = query.comparator();
+        int stored = countStored(query);
+        int taken = position + 1;
+        if (taken > stored + occurrences.size()) {
+            return null;
+        }
+        int low = Math.max(0, taken - stored);
+        int high = Math.min(occurrences.size(), taken);
+        while (true) {
+            int j = (low + high) >>> 1;
+            int rows = taken - j;
+            // The last occurrence taken must come before the first row left out, and the
+            // last row taken before the first occurrence left out
+            Transaction lastRow = rows > 0 ? readTransactionAt(query, rows - 1) : null;
+            Transaction nextRow = j > 0 && rows < stored ? readTransactionAt(query, rows) : null;
+            if ((rows > 0 && lastRow == null) || (j > 0 && rows < stored && nextRow == null)) {
+                return null;
+            }
+            if (nextRow != null && order.compare(occurrences.get(j - 1), nextRow) > 0) {
+                high = j - 1;
+            } else if (lastRow != null && j < occurrences.size() && order.compare(lastRow, occurrences.get(j)) > 0) {
+                low = j + 1;
+            } else if (lastRow == null) {
+                return occurrences.get(j - 1);
+            } else {
+                return j == 0 || order.compare(lastRow, occurrences.get(j - 1)) > 0 ? lastRow : occurrences.get(j - 1);
+            }
+        }
+    }
+
+    private Transaction readTransactionAt(TransactionQuery query, int position) {
+        String sql = "SELECT * FROM transaction_rows" + query.whereClause(false) + query.orderByClause() + " LIMIT 1 OFFSET ?";
+
+        DatabaseCall call = DatabaseCall.start("findTransactionAt", sql);
         try {
-            if (connection != null && !connection.isClosed()) {
-                connection.close();
+            Transaction transaction = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setInt(query.bindFilters(pstmt, 1), position);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? mapTransaction(rs) : null;
+                }
+            });
+            call.finish(transaction == null ? 0 : 1);
+            return transaction;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error seeking transaction: " + e.getMessage());
+        }
+    }
+
+    // Stored rows and recurring occurrences matching a query
+    public int countTransactions(TransactionQuery query) {
+        return countStored(query) + occurrencesFor(query).size();
+    }
+
+    private int countStored(TransactionQuery query) {
+        if (!query.hasFilters()) {
+            return getTransactionCount();
+        }
+        return cached(QueryCache.Key.of("countTransactions", query), () -> readCount(query));
+    }
+
+    private int readCount(TransactionQuery query) {
+        String sql = "SELECT COUNT(*) FROM transactions" + query.whereClause(false);
+
+        DatabaseCall call = DatabaseCall.start("countTransactions", sql);
+        try {
+            int count = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                query.bindFilters(pstmt, 1);
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    return rs.next() ? rs.getInt(1) : 0;
+                }
+            });
+            call.finish(1);
+            return count;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error counting transactions: " + e.getMessage());
+        }
+    }
+
+    // Every category in use, alphabetically
+    public List<String> getCategories() {
+        return cached(QueryCache.Key.of("getCategories"), () -> Collections.unmodifiableList(readCategories()));
+    }
+
+    private List<String> readCategories() {
+        String sql = "SELECT name AS category FROM categories WHERE id IN (SELECT category_id FROM rollup_yearly) ORDER BY name COLLATE NOCASE";
+
+        DatabaseCall call = DatabaseCall.start("getCategories", sql);
+        try {
+            List<String> categories = database.read(connection -> {
+                List<String> rows = new ArrayList<>();
+                try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                    while (rs.next()) {
+                        rows.add(rs.getString("category"));
+                    }
+                }
+                return rows;
+            });
+            call.finish(categories.size());
+            return categories;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving categories: " + e.getMessage());
+        }
+    }
+
+    // Full-text search over description and category. Every word typed is matched as a
+    // prefix, all words must match, and the best matches (bm25) come first.
+    public List<Transaction> searchTransactions(String text, int limit) {
+        String match = toMatchExpression(text);
+        if (match.isEmpty()) {
+            return List.of();
+        }
+        return cached(QueryCache.Key.of("searchTransactions", match, limit),
+                () -> Collections.unmodifiableList(readSearchResults(match, limit)));
+    }
+
+    private List<Transaction> readSearchResults(String match, int limit) {
+        String sql = """
+        SELECT t.*
+        FROM transactions_fts f
+        JOIN transaction_rows t ON t.id = f.rowid
+        WHERE transactions_fts MATCH ?
+        ORDER BY f.rank
+        LIMIT ?
+        """;
+
+        DatabaseCall call = DatabaseCall.start("searchTransactions", sql);
+        try {
+            List<Transaction> results = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setString(1, match);
+                pstmt.setInt(2, limit);
+
+                List<Transaction> rows = new ArrayList<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    mapAll(rs, rows, call);
+                }
+                return rows;
+            });
+            call.finish(results.size());
+            return results;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error searching transactions: " + e.getMessage());
+        }
+    }
+
+    // Quotes each word so user input can never be read as FTS5 query syntax
+    static String toMatchExpression(String text) {
+        StringBuilder match = new StringBuilder();
+        for (String word : words(text)) {
+            if (match.length() > 0) {
+                match.append(' ');
             }
+            match.append('"').append(word).append("\"*");
+        }
+        return match.toString();
+    }
+
+    // The words of a text as the search index splits them, lower-cased
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        for (String word : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!word.isEmpty()) {
+                words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // The column store, loaded on the first call. The rows are read on a read connection,
+    // so writers are not held up by it; then, under the write lock every write updates the
+    // store under, it catches up with what was written meanwhile, so it never misses one.
+    public ColumnarTransactionStore getColumnarStore() {
+        if (!columnarStore.isLoaded()) {
+            DatabaseCall call = DatabaseCall.start("loadColumnarStore", ColumnarTransactionStore.LOAD_SQL);
+            try {
+                columnarStore.startLoad();
+                ColumnarTransactionStore staged = database.read(ColumnarTransactionStore::readAll);
+                int rows = database.write(connection -> {
+                    columnarStore.finishLoad(staged, connection);
+                    return columnarStore.size();
+                });
+                call.finish(rows);
+            } catch (SQLException e) {
+                throw new RuntimeException("Error loading columnar store: " + e.getMessage());
+            }
+        }
+        return columnarStore;
+    }
+
+    // Loads the most used descriptions into the autocomplete trie; a no-op once loaded
+    public void loadDescriptionSuggestions() {
+        if (descriptionsLoaded) {
+            return;
+        }
+        String sql = "SELECT description, COUNT(*) AS uses FROM transactions GROUP BY description ORDER BY uses DESC LIMIT ?";
+
+        DatabaseCall call = DatabaseCall.start("loadDescriptionSuggestions", sql);
+        try {
+            int rows = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setInt(1, DESCRIPTION_SUGGESTIONS);
+                descriptionTrie.clear();
+                int count = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        descriptionTrie.add(rs.getString("description"), rs.getInt("uses"));
+                        count++;
+                    }
+                }
+                return count;
+            });
+            descriptionsLoaded = true;
+            call.finish(rows);
         } catch (SQLException e) {
-            throw new RuntimeException("Error closing database connection: " + e.getMessage());
+            throw new RuntimeException("Error loading description suggestions: " + e.getMessage());
+        }
+    }
+
+    // Completions come from memory only; they are safe to call on every keystroke
+    public List<String> suggestCategories(String prefix, int limit) {
+        return categoryTrie.complete(prefix, limit);
+    }
+
+    public List<String> suggestDescriptions(String prefix, int limit) {
+        return descriptionsLoaded ? descriptionTrie.complete(prefix, limit) : List.of();
+    }
+
+    // Every dashboard figure, with the trend between two dates (inclusive) at the given
+    // granularity, in the reporting currency. In the home currency they come from the
+    // running totals and the rollups, so a zoom costs O(buckets); in another currency each
+    // row is converted at its own day's rate, which takes one pass over the column store.
+    public DashboardFigures getDashboardFigures(TrendGranularity granularity, LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        String currency = reportingCurrency;
+        if (currency.equals(Transaction.HOME_CURRENCY)) {
+            return new DashboardFigures(homeSummary(today), getCategoryTotals(Transaction.TransactionType.EXPENSE),
+                    getMonthlyTotals(), granularity, from, to, getTrend(granularity, from, to));
+        }
+        RecurringSchedule current = schedule;
+        FxRateTable table = rates;
+        return cached(QueryCache.Key.of("getDashboardFigures", granularity, from, to, today, currency),
+                () -> current.convertedTo(currency, table).addTo(
+                        analyticsEngine.compute(getColumnarStore(), granularity, from, to, table, currency), today));
+    }
+
+    public int getTransactionCount() {
+        synchronized (totalsLock) {
+            return transactionCount;
+        }
+    }
+
+    // Maps every remaining row, timing the object mapping separately from the fetch
+    private static void mapAll(ResultSet rs, List<Transaction> rows, DatabaseCall call) throws SQLException {
+        while (rs.next()) {
+            long start = System.nanoTime();
+            rows.add(mapTransaction(rs));
+            call.addMappingTime(System.nanoTime() - start);
+        }
+    }
+
+    private static Transaction mapTransaction(ResultSet rs) throws SQLException {
+        return new Transaction(
+                rs.getInt("id"),
+                LocalDate.ofEpochDay(rs.getLong("date")),
+                rs.getString("description"),
+                Money.fromCents(rs.getLong("amount_cents")),
+                rs.getString("category"),
+                Transaction.TransactionType.valueOf(rs.getString("type")),
+                rs.getString("account"),
+                rs.getString("currency")
+        );
+    }
+
+    // Totals per category for one transaction type, largest first
+    public Map<String, BigDecimal> getCategoryTotals(Transaction.TransactionType type) {
+        LocalDate today = LocalDate.now();
+        RecurringSchedule current = schedule;
+        return cached(QueryCache.Key.of("getCategoryTotals", type, today),
+                () -> Collections.unmodifiableMap(current.addCategoryTotals(readCategoryTotals(type), type, today)));
+    }
+
+    private Map<String, BigDecimal> readCategoryTotals(Transaction.TransactionType type) {
+        String sql = """
+        SELECT c.name AS category, SUM(r.total_cents) AS total
+        FROM rollup_yearly r
+        JOIN categories c ON c.id = r.category_id
+        WHERE r.type = ?
+        GROUP BY r.category_id
+        ORDER BY total DESC
+        """;
+
+        AggregateSnapshot current = snapshot;
+        if (current != null) {
+            return new LinkedHashMap<>(current.getCategoryTotals(type));
+        }
+
+        DatabaseCall call = DatabaseCall.start("getCategoryTotals", sql);
+        try {
+            Map<String, BigDecimal> categoryTotals = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                pstmt.setString(1, type.toString());
+
+                Map<String, BigDecimal> totals = new LinkedHashMap<>();
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        totals.put(rs.getString("category"), Money.fromCents(rs.getLong("total")));
+                    }
+                }
+                return totals;
+            });
+            call.finish(categoryTotals.size());
+            return categoryTotals;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving category totals: " + e.getMessage());
+        }
+    }
+
+    // Totals per calendar month (1-12) for each transaction type, all years combined
+    public Map<Transaction.TransactionType, Map<Integer, BigDecimal>> getMonthlyTotals() {
+        LocalDate today = LocalDate.now();
+        RecurringSchedule current = schedule;
+        return cached(QueryCache.Key.of("getMonthlyTotals", today), () -> {
+            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> totals =
+                    current.addMonthlyTotals(readMonthlyTotals(), today);
+            totals.replaceAll((type, months) -> Collections.unmodifiableMap(months));
+            return Collections.unmodifiableMap(totals);
+        });
+    }
+
+    private Map<Transaction.TransactionType, Map<Integer, BigDecimal>> readMonthlyTotals() {
+        String sql = """
+        SELECT type, month, SUM(total_cents) AS total
+        FROM rollup_monthly
+        GROUP BY type, month
+        """;
+
+        AggregateSnapshot current = snapshot;
+        if (current != null) {
+            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> totals = new EnumMap<>(Transaction.TransactionType.class);
+            current.getMonthlyTotals().forEach((type, months) -> totals.put(type, new TreeMap<>(months)));
+            return totals;
+        }
+
+        DatabaseCall call = DatabaseCall.start("getMonthlyTotals", sql);
+        try {
+            Map<Transaction.TransactionType, Map<Integer, BigDecimal>> monthlyTotals = database.read(connection -> {
+                Map<Transaction.TransactionType, Map<Integer, BigDecimal>> totals = new EnumMap<>(Transaction.TransactionType.class);
+                for (Transaction.TransactionType type : Transaction.TransactionType.values()) {
+                    totals.put(type, new TreeMap<>());
+                }
+                try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                    while (rs.next()) {
+                        Transaction.TransactionType type = Transaction.TransactionType.valueOf(rs.getString("type"));
+                        totals.get(type).put(rs.getInt("month"), Money.fromCents(rs.getLong("total")));
+                    }
+                }
+                return totals;
+            });
+            call.finish(monthlyTotals.values().stream().mapToInt(Map::size).sum());
+            return monthlyTotals;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving monthly totals: " + e.getMessage());
+        }
+    }
+
+    // Income and expense per bucket between two dates (inclusive), read from the rollup
+    // tables, so the cost follows the number of buckets and not the number of rows.
+    // Buckets without transactions are left out.
+    public List<TrendPoint> getTrend(TrendGranularity granularity, LocalDate from, LocalDate to) {
+        RecurringSchedule current = schedule;
+        return cached(QueryCache.Key.of("getTrend", granularity, from, to),
+                () -> Collections.unmodifiableList(current.addTrend(readTrend(granularity, from, to), granularity, from, to)));
+    }
+
+    private List<TrendPoint> readTrend(TrendGranularity granularity, LocalDate from, LocalDate to) {
+        String sql = switch (granularity) {
+            case DAY -> """
+                    SELECT day AS bucket, type, SUM(total_cents) AS total
+                    FROM rollup_daily
+                    WHERE day BETWEEN ? AND ?
+                    GROUP BY day, type
+                    ORDER BY day
+                    """;
+            case MONTH -> """
+                    SELECT year * 12 + (month - 1) AS bucket, type, SUM(total_cents) AS total
+                    FROM rollup_monthly
+                    WHERE (year, month) >= (?, ?) AND (year, month) <= (?, ?)
+                    GROUP BY year, month, type
+                    ORDER BY year, month
+                    """;
+            case YEAR -> """
+                    SELECT year AS bucket, type, SUM(total_cents) AS total
+                    FROM rollup_yearly
+                    WHERE year BETWEEN ? AND ?
+                    GROUP BY year, type
+                    ORDER BY year
+                    """;
+        };
+
+        DatabaseCall call = DatabaseCall.start("getTrend", sql);
+        try {
+            List<TrendPoint> points = database.read(connection -> {
+                PreparedStatement pstmt = connection.prepare(sql);
+                switch (granularity) {
+                    case DAY -> {
+                        pstmt.setLong(1, from.toEpochDay());
+                        pstmt.setLong(2, to.toEpochDay());
+                    }
+                    case MONTH -> {
+                        pstmt.setInt(1, from.getYear());
+                        pstmt.setInt(2, from.getMonthValue());
+                        pstmt.setInt(3, to.getYear());
+                        pstmt.setInt(4, to.getMonthValue());
+                    }
+                    case YEAR -> {
+                        pstmt.setInt(1, from.getYear());
+                        pstmt.setInt(2, to.getYear());
+                    }
+                }
+
+                // Rows arrive ordered by bucket, one per type, so merge neighbours
+                List<TrendPoint> result = new ArrayList<>();
+                long currentBucket = Long.MIN_VALUE;
+                long income = 0;
+                long expenses = 0;
+                try (ResultSet rs = pstmt.executeQuery()) {
+                    while (rs.next()) {
+                        long bucket = rs.getLong("bucket");
+                        if (bucket != currentBucket && currentBucket != Long.MIN_VALUE) {
+                            result.add(trendPoint(granularity, currentBucket, income, expenses));
+                            income = 0;
+                            expenses = 0;
+                        }
+                        currentBucket = bucket;
+                        if (Transaction.TransactionType.valueOf(rs.getString("type")) == Transaction.TransactionType.INCOME) {
+                            income += rs.getLong("total");
+                        } else {
+                            expenses += rs.getLong("total");
+                        }
+                    }
+                }
+                if (currentBucket != Long.MIN_VALUE) {
+                    result.add(trendPoint(granularity, currentBucket, income, expenses));
+                }
+                return result;
+            });
+            call.finish(points.size());
+            return points;
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving trend: " + e.getMessage());
+        }
+    }
+
+    private static TrendPoint trendPoint(TrendGranularity granularity, long bucket, long incomeCents, long expensesCents) {
+        LocalDate start = switch (granularity) {
+            case DAY -> LocalDate.ofEpochDay(bucket);
+            case MONTH -> LocalDate.of((int) (bucket / 12), (int) (bucket % 12) + 1, 1);
+            case YEAR -> LocalDate.of((int) bucket, 1, 1);
+        };
+        return new TrendPoint(start, Money.fromCents(incomeCents), Money.fromCents(expensesCents));
+    }
+
+    // Oldest and newest transaction dates, read from the ends of the date index; null when empty.
+    // Recurring rules widen it from their start up to their last occurrence so far.
+    // Each caller gets its own copy, so the cached array cannot be changed through it.
+    public LocalDate[] getDateRange() {
+        LocalDate today = LocalDate.now();
+        RecurringSchedule current = schedule;
+        LocalDate[] cachedRange = cached(QueryCache.Key.of("getDateRange", today), () -> {
+            LocalDate[] range = readDateRange();
+            for (RecurringRule rule : current.getRules()) {
+                LocalDate last = rule.lastOccurrenceThrough(today);
+                if (last == null) {
+                    continue;
+                }
+                if (range == null) {
+                    range = new LocalDate[] {rule.getStart(), rule.getStart()};
+                }
+                if (rule.getStart().isBefore(range[0])) {
+                    range[0] = rule.getStart();
+                }
+                if (last.isAfter(range[1])) {
+                    range[1] = last;
+                }
+            }
+            return range;
+        });
+        return cachedRange == null ? null : cachedRange.clone();
+    }
+
+    private LocalDate[] readDateRange() {
+        // One aggregate per subquery: SQLite only answers a lone MIN or MAX from the end of
+        // the index, and scans the whole of it for both in one SELECT
+        String sql = "SELECT (SELECT MIN(date) FROM transactions) AS first, (SELECT MAX(date) FROM transactions) AS last";
+
+        try {
+            return database.read(connection -> {
+                try (ResultSet rs = connection.prepare(sql).executeQuery()) {
+                    long first = rs.getLong("first");
+                    if (rs.wasNull()) {
+                        return null;
+                    }
+                    return new LocalDate[] {LocalDate.ofEpochDay(first), LocalDate.ofEpochDay(rs.getLong("last"))};
+                }
+            });
+        } catch (SQLException e) {
+            throw new RuntimeException("Error retrieving date range: " + e.getMessage());
         }
     }
 
-    public void addTransactionListener(ViewTransactionsWindow viewTransactionsWindow) {
+    // Answers a read from the query cache while no write has happened since it was last
+    // run; results that come back null are not kept
+    @SuppressWarnings("unchecked")
+    private <T> T cached(QueryCache.Key key, Supplier<T> read) {
+        long version = dataVersion.get();
+        T result = (T) queryCache.get(key, version);
+        if (result == null) {
+            result = read.get();
+            if (result != null) {
+                queryCache.put(key, version, result);
+            }
+        }
+        return result;
+    }
+
+    public QueryCache.Stats getQueryCacheStats() {
+        return queryCache.getStats();
+    }
+
+    // Drops every cached result, so the next reads go to the database; for benchmarks
+    // that time the queries themselves
+    void clearQueryCache() {
+        queryCache.clear();
+    }
+
+    // Served from the running totals, no table scan, plus the recurring occurrences to date,
+    // which are counted rather than visited. The totals are in the home currency; reported
+    // in another one, each row is converted at its own day's rate, which takes a scan of
+    // the column store, so UI code should use getFinancialSummaryAsync.
+    public FinancialSummary getFinancialSummary() {
+        String currency = reportingCurrency;
+        LocalDate today = LocalDate.now();
+        if (currency.equals(Transaction.HOME_CURRENCY)) {
+            return homeSummary(today);
+        }
+        RecurringSchedule current = schedule;
+        FxRateTable table = rates;
+        return cached(QueryCache.Key.of("getFinancialSummary", currency, today), () -> current.convertedTo(currency, table)
+                .addTo(analyticsEngine.compute(getColumnarStore(), TrendGranularity.YEAR, today, today, table, currency)
+                        .getSummary(), today));
+    }
+
+    private FinancialSummary homeSummary(LocalDate today) {
+        FinancialSummary stored;
+        synchronized (totalsLock) {
+            stored = new FinancialSummary(Money.fromCents(totalIncomeCents), Money.fromCents(totalExpensesCents));
+        }
+        return schedule.addTo(stored, today);
+    }
+
+    private void loadFxRates() throws SQLException {
+        DatabaseCall call = DatabaseCall.start("loadFxRates", FxRateTable.LOAD_SQL);
+        rates = database.read(FxRateTable::load);
+        call.finish(rates.getCurrencies().size());
+    }
+
+    // Adds or replaces daily exchange rates, each what one unit of a currency was worth in
+    // the home currency, and returns the number read. Foreign rows whose home-currency
+    // amount changes with the new rates are updated, and with them the rollups (by
+    // trigger), the running totals and the budgets; converted figures are worked out
+    // again from the new table.
+    public int importFxRates(Iterator<FxRateTable.Rate> newRates) {
+        String sql = """
+        INSERT INTO fx_rates (currency, day, rate) VALUES (?, ?, ?)
+        ON CONFLICT (currency, day) DO UPDATE SET rate = excluded.rate
+        """;
+
+        DatabaseCall call = DatabaseCall.start("importFxRates", sql);
+        int count;
+        long[] typeDeltas = new long[2];
+        FxRateTable[] table = new FxRateTable[1];
+        try {
+            // The write lock is held until the new table is in place, so no insert in
+            // between can price a row with the old one. The table is only published once
+            // the transaction has committed, so readers never convert with rates that a
+            // failed commit left out of the database.
+            count = database.write(writer -> {
+                int imported = database.writeInTransaction(connection -> {
+                    PreparedStatement pstmt = connection.prepare(sql);
+                    int rows = 0;
+                    while (newRates.hasNext()) {
+                        FxRateTable.Rate rate = newRates.next();
+                        String currency = Transaction.normalizeCurrency(rate.currency());
+                        if (currency.equals(Transaction.HOME_CURRENCY)) {
+                            throw new IllegalArgumentException(currency + " is the home currency and has no rates");
+                        }
+                        pstmt.setString(1, currency);
+                        pstmt.setLong(2, rate.date().toEpochDay());
+                        pstmt.setDouble(3, rate.rate());
+                        pstmt.addBatch();
+                        if (++rows % IMPORT_BATCH_SIZE == 0) {
+                            pstmt.executeBatch();
+                        }
+                    }
+                    pstmt.executeBatch();
+                    if (rows > 0) {
+                        table[0] = FxRateTable.load(connection);
+                        repriceForeignRows(connection, table[0], typeDeltas);
+                    }
+                    return rows;
+                });
+                if (table[0] != null) {
+                    rates = table[0];
+                }
+                return imported;
+            });
+            call.finish(count);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error importing exchange rates: " + e.getMessage());
+        }
+        if (typeDeltas[0] != 0 || typeDeltas[1] != 0) {
+            applyDelta(Transaction.TransactionType.INCOME, typeDeltas[0], 0);
+            applyDelta(Transaction.TransactionType.EXPENSE, typeDeltas[1], 0);
+            reloadBudgets();
+        }
+        if (count > 0) {
+            ratesChanged();
+        }
+        return count;
+    }
+
+    // Sets home_cents again for every foreign row, found through the partial index on them,
+    // and adds how much each type's total moved to typeDeltas { income, expenses }
+    private void repriceForeignRows(PooledConnection connection, FxRateTable table, long[] typeDeltas) throws SQLException {
+        String selectSql = "SELECT id, date, amount_cents, currency, type, home_cents FROM transactions WHERE currency <> 'USD'";
+        String updateSql = "UPDATE transactions SET home_cents = ? WHERE id = ?";
+
+        PreparedStatement update = connection.prepare(updateSql);
+        int changed = 0;
+        try (ResultSet rs = connection.prepare(selectSql).executeQuery()) {
+            while (rs.next()) {
+                long before = rs.getLong("home_cents");
+                long after = table.toHomeCents(rs.getLong("amount_cents"), rs.getString("currency"),
+                        LocalDate.ofEpochDay(rs.getLong("date")));
+                if (after == before) {
+                    continue;
+                }
+                boolean income = Transaction.TransactionType.valueOf(rs.getString("type")) == Transaction.TransactionType.INCOME;
+                typeDeltas[income ? 0 : 1] += after - before;
+                update.setLong(1, after);
+                update.setInt(2, rs.getInt("id"));
+                update.addBatch();
+                if (++changed % IMPORT_BATCH_SIZE == 0) {
+                    update.executeBatch();
+                }
+            }
+        }
+        update.executeBatch();
+    }
+
+    // Converted figures go stale with the rates; stored figures and the snapshot do not
+    private void ratesChanged() {
+        dataVersion.incrementAndGet();
+        eventBus.publishBulkChange();
+    }
+
+    public FxRateTable getFxRates() {
+        return rates;
+    }
+
+    public String getReportingCurrency() {
+        return reportingCurrency;
+    }
+
+    // The currency getFinancialSummary and getDashboardFigures report in; it needs rates
+    // unless it is the home currency
+    public void setReportingCurrency(String currency) {
+        String code = Transaction.normalizeCurrency(currency);
+        if (!rates.hasRates(code)) {
+            throw new IllegalArgumentException("No exchange rates for " + code);
+        }
+        if (!code.equals(reportingCurrency)) {
+            reportingCurrency = code;
+            eventBus.publishBulkChange();
+        }
+    }
+
+    // Every account name, in no particular order
+    public List<String> getAccounts() {
+        return accounts.names();
+    }
+
+    // Async variants: reads run on the reader threads, writes on the single writer thread
+
+    public <T> CompletableFuture<T> submitRead(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, readExecutor);
+    }
+
+    public <T> CompletableFuture<T> submitWrite(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(task, writeExecutor);
+    }
+
+    // Completes with the new row's id, or exceptionally if the insert failed, with
+    // addTransaction's IllegalArgumentException as the cause for a currency without rates
+    public CompletableFuture<Integer> addTransactionAsync(Transaction transaction) {
+        return submitWrite(() -> {
+            int id = addTransaction(transaction);
+            if (id < 0) {
+                throw new IllegalStateException("The transaction could not be saved");
+            }
+            return id;
+        });
+    }
+
+    public CompletableFuture<Integer> addRecurringRuleAsync(RecurringRule rule) {
+        return submitWrite(() -> addRecurringRule(rule));
+    }
+
+    public CompletableFuture<Boolean> removeRecurringRuleAsync(int ruleId) {
+        return submitWrite(() -> removeRecurringRule(ruleId));
+    }
+
+    public CompletableFuture<Void> setBudgetAsync(String category, BigDecimal monthlyLimit) {
+        return submitWrite(() -> {
+            setBudget(category, monthlyLimit);
+            return null;
+        });
+    }
 
+    public CompletableFuture<Boolean> removeBudgetAsync(String category) {
+        return submitWrite(() -> removeBudget(category));
+    }
+
+    public CompletableFuture<FinancialSummary> getFinancialSummaryAsync() {
+        return submitRead(this::getFinancialSummary);
+    }
+
+    public CompletableFuture<List<BudgetStatus>> getBudgetStatusesAsync() {
+        return submitRead(this::getBudgetStatuses);
+    }
+
+    public CompletableFuture<Void> removeTransactionAsync(int transactionId) {
+        return CompletableFuture.runAsync(() -> removeTransaction(transactionId), writeExecutor);
+    }
+
+    public CompletableFuture<List<Transaction>> getAllTransactionsAsync() {
+        return submitRead(this::getAllTransactions);
+    }
+
+    public CompletableFuture<List<Transaction>> getTransactionsPageAsync(TransactionCursor after, int limit) {
+        return submitRead(() -> getTransactionsPage(after, limit));
+    }
+
+    public CompletableFuture<Integer> countTransactionsAsync(TransactionQuery query) {
+        return submitRead(() -> countTransactions(query));
+    }
+
+    public CompletableFuture<Void> loadDescriptionSuggestionsAsync() {
+        return submitRead(() -> {
+            loadDescriptionSuggestions();
+            return null;
+        });
+    }
+
+    public CompletableFuture<List<String>> getCategoriesAsync() {
+        return submitRead(this::getCategories);
+    }
+
+    public CompletableFuture<List<Transaction>> searchTransactionsAsync(String text, int limit) {
+        return submitRead(() -> searchTransactions(text, limit));
+    }
+
+    public CompletableFuture<Map<String, BigDecimal>> getCategoryTotalsAsync(Transaction.TransactionType type) {
+        return submitRead(() -> getCategoryTotals(type));
+    }
+
+    public CompletableFuture<Map<Transaction.TransactionType, Map<Integer, BigDecimal>>> getMonthlyTotalsAsync() {
+        return submitRead(this::getMonthlyTotals);
+    }
+
+    public CompletableFuture<DashboardFigures> getDashboardFiguresAsync(TrendGranularity granularity, LocalDate from, LocalDate to) {
+        return submitRead(() -> getDashboardFigures(granularity, from, to));
+    }
+
+    public CompletableFuture<List<TrendPoint>> getTrendAsync(TrendGranularity granularity, LocalDate from, LocalDate to) {
+        return submitRead(() -> getTrend(granularity, from, to));
+    }
+
+    // Rewrites the database file without its free pages, merges the search index's
+    // segments and truncates the WAL. Holds the write lock throughout, so writes wait.
+    public void compact() {
+        String sql = "VACUUM";
+        DatabaseCall call = DatabaseCall.start("compact", sql);
+        try {
+            database.write(connection -> {
+                connection.clearStatements();
+                // A statement each: the driver keeps the last one run on a Statement open
+                for (String step : List.of("INSERT INTO transactions_fts (transactions_fts) VALUES ('optimize')",
+                        sql, "PRAGMA wal_checkpoint(TRUNCATE)", "PRAGMA optimize")) {
+                    try (Statement stmt = connection.getConnection().createStatement()) {
+                        stmt.execute(step);
+                    }
+                }
+                return null;
+            });
+            call.finish(0);
+        } catch (SQLException e) {
+            throw new RuntimeException("Error compacting database: " + e.getMessage());
+        }
+    }
+
+    // Make sure to close the connection when done
+    public void close() {
+        readExecutor.shutdown();
+        writeExecutor.shutdown();
+        eventBus.shutdown();
+        try {
+            database.close();
+        } catch (SQLException e) {
+            throw new RuntimeException("Error closing database connection: " + e.getMessage());
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,313 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.Objects;
+
+// Filters and sort order for reading transactions. TransactionManager compiles it to a
+// parameterized WHERE / ORDER BY so SQLite can answer it from an index; stored rows are
+// never filtered or sorted in Java. Only recurring occurrences, which are not stored, go
+// through matches() and comparator() to be merged in. Build one with TransactionQuery.builder().
+// DATE, AMOUNT, DESCRIPTION and ID pages are range scans of an index in (column, id)
+// order. CATEGORY pages still sort every matching row, as the name is in the categories
+// table, and TYPE pages sort each type's rows by id.
+public class TransactionQuery {
+
+    public enum SortColumn {
+        DATE("date"),
+        DESCRIPTION("description"),
+        AMOUNT("amount_cents"),
+        CATEGORY("category"),
+        TYPE("type"),
+        ID("id");
+
+        private final String column;
+
+        SortColumn(String column) {
+            this.column = column;
+        }
+
+        // The value this column holds in the database for a row, for keyset seeks
+        Object keyOf(Transaction transaction) {
+            return switch (this) {
+                case DATE -> transaction.getDate().toEpochDay();
+                case DESCRIPTION -> transaction.getDescription();
+                case AMOUNT -> Money.toCents(transaction.getAmount());
+                case CATEGORY -> transaction.getCategory();
+                case TYPE -> transaction.getType().toString();
+                case ID -> transaction.getId();
+            };
+        }
+
+        // The same for a row read with every sort column selected
+        Object keyOf(ResultSet row) throws SQLException {
+            return switch (this) {
+                case DATE, AMOUNT -> row.getLong(column);
+                case DESCRIPTION, CATEGORY, TYPE -> row.getString(column);
+                case ID -> row.getInt(column);
+            };
+        }
+    }
+
+    private static final TransactionQuery ALL = builder().build();
+
+    private final LocalDate from;
+    private final LocalDate to;
+    private final String category;
+    private final Transaction.TransactionType type;
+    private final BigDecimal minAmount;
+    private final BigDecimal maxAmount;
+    private final String text;
+    private final SortColumn sortColumn;
+    private final boolean ascending;
+
+    private TransactionQuery(Builder builder) {
+        this.from = builder.from;
+        this.to = builder.to;
+        this.category = builder.category;
+        this.type = builder.type;
+        this.minAmount = builder.minAmount;
+        this.maxAmount = builder.maxAmount;
+        this.text = builder.text;
+        this.sortColumn = builder.sortColumn;
+        this.ascending = builder.ascending;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    // Every transaction, newest first
+    public static TransactionQuery all() {
+        return ALL;
+    }
+
+    public LocalDate getFrom() { return from; }
+    public LocalDate getTo() { return to; }
+    public String getCategory() { return category; }
+    public Transaction.TransactionType getType() { return type; }
+    public BigDecimal getMinAmount() { return minAmount; }
+    public BigDecimal getMaxAmount() { return maxAmount; }
+    public String getText() { return text; }
+    public SortColumn getSortColumn() { return sortColumn; }
+    public boolean isAscending() { return ascending; }
+
+    // The same filters in another order
+    public TransactionQuery withSort(SortColumn sortColumn, boolean ascending) {
+        Builder builder = new Builder();
+        builder.from = from;
+        builder.to = to;
+        builder.category = category;
+        builder.type = type;
+        builder.minAmount = minAmount;
+        builder.maxAmount = maxAmount;
+        builder.text = text;
+        return builder.sortBy(sortColumn, ascending).build();
+    }
+
+    public boolean hasFilters() {
+        return from != null || to != null || category != null || type != null
+                || minAmount != null || maxAmount != null || text != null;
+    }
+
+    // " WHERE ..." for the filters, plus the keyset condition when seeking past a row
+    String whereClause(boolean seek) {
+        StringBuilder where = new StringBuilder();
+        if (from != null) {
+            appendCondition(where, "date >= ?");
+        }
+        if (to != null) {
+            appendCondition(where, "date <= ?");
+        }
+        if (category != null) {
+            appendCondition(where, "category_id = (SELECT id FROM categories WHERE normalized = ?)");
+        }
+        if (type != null) {
+            appendCondition(where, "type = ?");
+        }
+        if (minAmount != null) {
+            appendCondition(where, "amount_cents >= ?");
+        }
+        if (maxAmount != null) {
+            appendCondition(where, "amount_cents <= ?");
+        }
+        if (text != null) {
+            appendCondition(where, "id IN (SELECT rowid FROM transactions_fts WHERE transactions_fts MATCH ?)");
+        }
+        if (seek) {
+            appendCondition(where, "(" + sortColumn.column + ", id) " + (ascending ? ">" : "<") + " (?, ?)");
+        }
+        return where.toString();
+    }
+
+    private static void appendCondition(StringBuilder where, String condition) {
+        where.append(where.length() == 0 ? " WHERE " : " AND ").append(condition);
+    }
+
+    // id breaks ties so the order is total and keyset seeks never skip or repeat rows
+    String orderByClause() {
+        String direction = ascending ? " ASC" : " DESC";
+        return " ORDER BY " + sortColumn.column + direction + ", id" + direction;
+    }
+
+    // The order of orderByClause, for merging occurrences into stored rows. Occurrences of
+    // one rule share an id, the rule's negated, so ties between them go by date.
+    Comparator<Transaction> comparator() {
+        Comparator<Transaction> order = (a, b) -> compare(sortColumn.keyOf(a), a.getId(), sortColumn.keyOf(b), b.getId());
+        return order.thenComparing(Transaction::getDate, ascending ? Comparator.naturalOrder() : Comparator.reverseOrder());
+    }
+
+    // Compares two (sort key, id) pairs in this query's direction
+    @SuppressWarnings("unchecked")
+    int compare(Object key, int id, Object otherKey, int otherId) {
+        int order = ((Comparable<Object>) key).compareTo(otherKey);
+        if (order == 0) {
+            order = Integer.compare(id, otherId);
+        }
+        return ascending ? order : -order;
+    }
+
+    // Whether a transaction passes the filters, as whereClause would judge a stored row.
+    // Text matches when each of its words starts a word of the description or category,
+    // which is what the search index's prefix queries do.
+    boolean matches(Transaction transaction) {
+        if ((from != null && transaction.getDate().isBefore(from)) || (to != null && transaction.getDate().isAfter(to))) {
+            return false;
+        }
+        if (category != null && !NameDictionary.normalize(category).equals(NameDictionary.normalize(transaction.getCategory()))) {
+            return false;
+        }
+        if (type != null && transaction.getType() != type) {
+            return false;
+        }
+        long cents = Money.toCents(transaction.getAmount());
+        if ((minAmount != null && cents < Money.toCents(minAmount)) || (maxAmount != null && cents > Money.toCents(maxAmount))) {
+            return false;
+        }
+        if (text != null) {
+            String words = " " + String.join(" ", TransactionManager.words(transaction.getDescription()))
+                    + " " + String.join(" ", TransactionManager.words(transaction.getCategory()));
+            for (String word : TransactionManager.words(text)) {
+                if (!words.contains(" " + word)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    // Binds the filter values in whereClause order and returns the next free index
+    int bindFilters(PreparedStatement pstmt, int index) throws SQLException {
+        if (from != null) {
+            pstmt.setLong(index++, from.toEpochDay());
+        }
+        if (to != null) {
+            pstmt.setLong(index++, to.toEpochDay());
+        }
+        if (category != null) {
+            pstmt.setString(index++, NameDictionary.normalize(category));
+        }
+        if (type != null) {
+            pstmt.setString(index++, type.toString());
+        }
+        if (minAmount != null) {
+            pstmt.setLong(index++, Money.toCents(minAmount));
+        }
+        if (maxAmount != null) {
+            pstmt.setLong(index++, Money.toCents(maxAmount));
+        }
+        if (text != null) {
+            pstmt.setString(index++, TransactionManager.toMatchExpression(text));
+        }
+        return index;
+    }
+
+    int bindSeek(PreparedStatement pstmt, int index, Transaction after) throws SQLException {
+        pstmt.setObject(index++, sortColumn.keyOf(after));
+        pstmt.setInt(index++, after.getId());
+        return index;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof TransactionQuery other)) {
+            return false;
+        }
+        return ascending == other.ascending
+                && Objects.equals(from, other.from)
+                && Objects.equals(to, other.to)
+                && Objects.equals(category, other.category)
+                && type == other.type
+                && Objects.equals(minAmount, other.minAmount)
+                && Objects.equals(maxAmount, other.maxAmount)
+                && Objects.equals(text, other.text)
+                && sortColumn == other.sortColumn;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(from, to, category, type, minAmount, maxAmount, text, sortColumn, ascending);
+    }
+
+    public static class Builder {
+        private LocalDate from;
+        private LocalDate to;
+        private String category;
+        private Transaction.TransactionType type;
+        private BigDecimal minAmount;
+        private BigDecimal maxAmount;
+        private String text;
+        private SortColumn sortColumn = SortColumn.DATE;
+        private boolean ascending = false;
+
+        private Builder() {
+        }
+
+        // Inclusive date range; either end may be null for an open range
+        public Builder between(LocalDate from, LocalDate to) {
+            this.from = from;
+            this.to = to;
+            return this;
+        }
+
+        public Builder category(String category) {
+            this.category = category == null || category.isBlank() ? null : category;
+            return this;
+        }
+
+        public Builder type(Transaction.TransactionType type) {
+            this.type = type;
+            return this;
+        }
+
+        // Inclusive amount range; either end may be null for an open range
+        public Builder amountBetween(BigDecimal minAmount, BigDecimal maxAmount) {
+            this.minAmount = minAmount;
+            this.maxAmount = maxAmount;
+            return this;
+        }
+
+        // Full-text match on description and category, same rules as searchTransactions
+        public Builder matching(String text) {
+            this.text = text == null || TransactionManager.toMatchExpression(text).isEmpty() ? null : text.trim();
+            return this;
+        }
+
+        public Builder sortBy(SortColumn sortColumn, boolean ascending) {
+            this.sortColumn = Objects.requireNonNull(sortColumn);
+            this.ascending = ascending;
+            return this;
+        }
+
+        public TransactionQuery build() {
+            return new TransactionQuery(this);
+        }
+    }
+}
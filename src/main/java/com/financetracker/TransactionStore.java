@@ -0,0 +1,36 @@
+package com.financetracker;
+
+import java.util.Iterator;
+import java.util.function.Consumer;
+
+// The basic persistence operations, so a backend can be picked per job: SQLite for the
+// app with its indexes, rollups and search, or the append-only journal for fast ingest.
+//
+// Contract for every backend:
+// - add assigns ids that only ever grow, even across removals, compaction and reopening
+// - remove returns false for unknown or already removed ids
+// - forEach visits the live rows oldest id first, with the ids add returned
+// - after close, everything written before it is there again when the store is reopened
+// - compact keeps every live row with its id
+// - a write torn by a crash is either all there or not at all on reopen, never half
+public interface TransactionStore extends AutoCloseable {
+
+    // Stores the row and returns its new id
+    int add(Transaction transaction);
+
+    // Stores every row; returns how many were stored
+    int addAll(Iterator<Transaction> transactions);
+
+    boolean remove(int id);
+
+    // Number of live rows
+    int count();
+
+    void forEach(Consumer<Transaction> action);
+
+    // Gives back the space held by removed rows
+    void compact();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,38 @@
+package com.financetracker;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+
+// Bucket size for trend queries; each maps to one rollup table
+public enum TrendGranularity {
+    DAY(DateTimeFormatter.ofPattern("yyyy-MM-dd")),
+    MONTH(DateTimeFormatter.ofPattern("yyyy-MM")),
+    YEAR(DateTimeFormatter.ofPattern("yyyy"));
+
+    private final DateTimeFormatter labelFormat;
+
+    TrendGranularity(DateTimeFormatter labelFormat) {
+        this.labelFormat = labelFormat;
+    }
+
+    // First day of the bucket containing the date
+    public LocalDate bucketStart(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case MONTH -> date.withDayOfMonth(1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    public LocalDate nextBucket(LocalDate bucketStart) {
+        return switch (this) {
+            case DAY -> bucketStart.plusDays(1);
+            case MONTH -> bucketStart.plusMonths(1);
+            case YEAR -> bucketStart.plusYears(1);
+        };
+    }
+
+    public String label(LocalDate bucketStart) {
+        return labelFormat.format(bucketStart);
+    }
+}
@@ -0,0 +1,21 @@
+package com.financetracker;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Income and expense totals for one trend bucket, identified by its first day
+public class TrendPoint {
+    private final LocalDate bucketStart;
+    private final BigDecimal income;
+    private final BigDecimal expenses;
+
+    public TrendPoint(LocalDate bucketStart, BigDecimal income, BigDecimal expenses) {
+        this.bucketStart = bucketStart;
+        this.income = income;
+        this.expenses = expenses;
+    }
+
+    public LocalDate getBucketStart() { return bucketStart; }
+    public BigDecimal getIncome() { return income; }
+    public BigDecimal getExpenses() { return expenses; }
+}
@@ -99,8 +99,9 @@ public class UserInterface {
 
         System.out.println("\nFinancial Summary");
         System.out.println("----------------");
-        System.out.printf("Total Income:   $%10.2f%n", summary.getTotalIncome());
-        System.out.printf("Total Expenses: $%10.2f%n", summary.getTotalExpenses());
-        System.out.printf("Balance:        $%10.2f%n", summary.getBalance());
+        String currency = transactionManager.getReportingCurrency();
+        System.out.printf("Total Income:   %14s%n", Money.format(summary.getTotalIncome(), currency));
+        System.out.printf("Total Expenses: %14s%n", Money.format(summary.getTotalExpenses(), currency));
+        System.out.printf("Balance:        %14s%n", Money.format(summary.getBalance(), currency));
     }
 }
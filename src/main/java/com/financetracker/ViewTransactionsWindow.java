@@ -1,16 +1,21 @@
 package com.financetracker;
 
+import javafx.animation.PauseTransition;
 import javafx.application.Platform;
-import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.geometry.Pos;
 import javafx.scene.Scene;
 import javafx.scene.control.*;
 import javafx.scene.layout.*;
+import javafx.stage.FileChooser;
 import javafx.stage.Stage;
 import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.geometry.Insets;
+import javafx.util.Duration;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 
@@ -19,6 +24,22 @@ public class ViewTransactionsWindow implements TransactionListener {
     private TableView<Transaction> table;
     private ObservableList<Transaction> data;
 
+    // Search and filter controls; together with the column sort they make up the query
+    // the table pages through, so filtering and sorting both happen in the database
+    private HBox filterBar;
+    private TextField searchField;
+    private DatePicker fromPicker;
+    private DatePicker toPicker;
+    private ComboBox<String> categoryBox;
+    private ComboBox<Transaction.TransactionType> typeBox;
+    private TextField minAmountField;
+    private TextField maxAmountField;
+    private final PauseTransition typingDelay = new PauseTransition(Duration.millis(200));
+    private TransactionQuery.SortColumn sortColumn = TransactionQuery.SortColumn.DATE;
+    private boolean sortAscending = false;
+    // Only the reply to the latest refresh is shown
+    private long loadGeneration;
+
     // Declare the labels for displaying the financial summary
     private Label incomeLabel;
     private Label expensesLabel;
@@ -45,30 +66,84 @@ public class ViewTransactionsWindow implements TransactionListener {
         summaryLayout.setAlignment(Pos.CENTER);
         summaryLayout.getChildren().addAll(incomeLabel, expensesLabel, balanceLabel);
 
+        // Search box and filters; typed fields wait for a pause in typing before querying
+        searchField = new TextField();
+        searchField.setPromptText("Search description or category");
+        searchField.getStyleClass().add("search-field");
+        HBox.setHgrow(searchField, Priority.ALWAYS);
+
+        fromPicker = new DatePicker();
+        fromPicker.setPromptText("From");
+        fromPicker.setPrefWidth(130);
+        toPicker = new DatePicker();
+        toPicker.setPromptText("To");
+        toPicker.setPrefWidth(130);
+
+        categoryBox = new ComboBox<>();
+        categoryBox.setPromptText("All categories");
+        typeBox = new ComboBox<>();
+        typeBox.getItems().addAll(Transaction.TransactionType.values());
+        typeBox.setPromptText("All types");
+
+        minAmountField = new TextField();
+        minAmountField.setPromptText("Min amount");
+        minAmountField.setPrefWidth(100);
+        maxAmountField = new TextField();
+        maxAmountField.setPromptText("Max amount");
+        maxAmountField.setPrefWidth(100);
+
+        Button clearButton = new Button("Clear");
+        clearButton.setOnAction(event -> clearFilters());
+
+        // Exports the rows the current filters select
+        Button exportButton = new Button("Export");
+        exportButton.setOnAction(event -> exportTransactions());
+
+        filterBar = new HBox(10, searchField, fromPicker, toPicker, categoryBox, typeBox,
+                minAmountField, maxAmountField, clearButton, exportButton);
+        filterBar.setAlignment(Pos.CENTER_LEFT);
+        filterBar.getStyleClass().add("filter-bar");
+
+        typingDelay.setOnFinished(event -> applyFilters());
+        searchField.textProperty().addListener((observable, oldText, newText) -> typingDelay.playFromStart());
+        minAmountField.textProperty().addListener((observable, oldText, newText) -> typingDelay.playFromStart());
+        maxAmountField.textProperty().addListener((observable, oldText, newText) -> typingDelay.playFromStart());
+        fromPicker.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
+        toPicker.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
+        categoryBox.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
+        typeBox.valueProperty().addListener((observable, oldValue, newValue) -> applyFilters());
+
         // Create table
         table = new TableView<>();
         table.getStyleClass().add("transaction-table");
+        table.setPlaceholder(new Label("No transactions yet."));
 
         // Create columns for the transaction table
+        // Each sortable column carries the database column it sorts by
         TableColumn<Transaction, LocalDate> dateCol = new TableColumn<>("Date");
         dateCol.setCellValueFactory(new PropertyValueFactory<>("date"));
         dateCol.setPrefWidth(150);
+        dateCol.setUserData(TransactionQuery.SortColumn.DATE);
 
         TableColumn<Transaction, String> descriptionCol = new TableColumn<>("Description");
         descriptionCol.setCellValueFactory(new PropertyValueFactory<>("description"));
         descriptionCol.setPrefWidth(200);
+        descriptionCol.setUserData(TransactionQuery.SortColumn.DESCRIPTION);
 
         TableColumn<Transaction, BigDecimal> amountCol = new TableColumn<>("Amount");
         amountCol.setCellValueFactory(new PropertyValueFactory<>("amount"));
         amountCol.setPrefWidth(150);
+        amountCol.setUserData(TransactionQuery.SortColumn.AMOUNT);
 
         TableColumn<Transaction, String> categoryCol = new TableColumn<>("Category");
         categoryCol.setCellValueFactory(new PropertyValueFactory<>("category"));
         categoryCol.setPrefWidth(150);
+        categoryCol.setUserData(TransactionQuery.SortColumn.CATEGORY);
 
         TableColumn<Transaction, Transaction.TransactionType> typeCol = new TableColumn<>("Type");
         typeCol.setCellValueFactory(new PropertyValueFactory<>("type"));
         typeCol.setPrefWidth(100);
+        typeCol.setUserData(TransactionQuery.SortColumn.TYPE);
 
         // Add action column for buttons
         TableColumn<Transaction, Void> actionCol = new TableColumn<>("Actions");
@@ -89,15 +164,25 @@ public class ViewTransactionsWindow implements TransactionListener {
                 // Delete button action
                 deleteButton.setOnAction(event -> {
                     Transaction transaction = getTableView().getItems().get(getIndex());
+                    if (transaction == null) {
+                        return;
+                    }
+                    if (transaction.getId() < 0) {
+                        removeRule(transaction);
+                        return;
+                    }
                     Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
                     alert.setTitle("Delete Transaction");
                     alert.setHeaderText("Delete Transaction");
                     alert.setContentText("Are you sure you want to delete this transaction?");
                     alert.showAndWait().ifPresent(response -> {
                         if (response == ButtonType.OK) {
-                            transactionManager.removeTransaction(transaction.getId());
-                            refreshTable();
-                            updateFinancialSummary();
+                            // The change event refreshes the table and summary
+                            transactionManager.removeTransactionAsync(transaction.getId())
+                                    .exceptionally(error -> {
+                                        error.printStackTrace();
+                                        return null;
+                                    });
                         }
                     });
                 });
@@ -105,6 +190,9 @@ public class ViewTransactionsWindow implements TransactionListener {
                 // Edit button action
                 editButton.setOnAction(event -> {
                     Transaction existingTransaction = getTableView().getItems().get(getIndex());
+                    if (existingTransaction == null) {
+                        return;
+                    }
                     Stage stage = new Stage();
                     stage.setTitle("Edit Transaction");
                     AddTransactionWindow editWindow = new AddTransactionWindow(stage, transactionManager);
@@ -119,30 +207,196 @@ public class ViewTransactionsWindow implements TransactionListener {
             @Override
             protected void updateItem(Void item, boolean empty) {
                 super.updateItem(item, empty);
-                if (empty) {
+                // Rows whose page is still loading have no transaction yet
+                if (empty || getTableRow() == null || getTableRow().getItem() == null) {
                     setGraphic(null);
                 } else {
+                    // A recurring occurrence is not a stored row; deleting it removes its rule
+                    deleteButton.setText(getTableRow().getItem().getId() < 0 ? "Remove rule" : "Delete");
                     setGraphic(buttonContainer);
                 }
             }
         });
         actionCol.setPrefWidth(160); // Increased width to accommodate both buttons
+        actionCol.setSortable(false);
 
         table.getColumns().addAll(dateCol, descriptionCol, amountCol, categoryCol, typeCol, actionCol);
 
+        // Clicking a header re-queries the database in that order instead of sorting in memory.
+        // The table also calls this whenever its items change, so only a new order reloads.
+        table.setSortPolicy(sortedTable -> {
+            TransactionQuery.SortColumn column = TransactionQuery.SortColumn.DATE;
+            boolean ascending = false;
+            if (!table.getSortOrder().isEmpty()) {
+                TableColumn<Transaction, ?> first = table.getSortOrder().get(0);
+                column = (TransactionQuery.SortColumn) first.getUserData();
+                ascending = first.getSortType() == TableColumn.SortType.ASCENDING;
+            }
+            if (column != sortColumn || ascending != sortAscending) {
+                sortColumn = column;
+                sortAscending = ascending;
+                refreshTable();
+            }
+            return true;
+        });
+
+        // Stop listening once the table leaves the screen, resume if it comes back
+        table.sceneProperty().addListener((observable, oldScene, newScene) -> {
+            if (newScene == null) {
+                transactionManager.removeTransactionListener(this);
+            } else {
+                transactionManager.addTransactionListener(this);
+            }
+        });
+
         // Make table columns fill the width of the table
         table.setColumnResizePolicy(TableView.CONSTRAINED_RESIZE_POLICY);
 
         // Initialize the data and refresh the table
         refreshTable();
+        refreshCategories();
         // Initialize financial summary
         updateFinancialSummary();
     }
 
-    // Refresh the table
+    // Refresh the table; the matching rows are counted in the background, then paged in
+    // from the database as they scroll into view
     public void refreshTable() {
-        data = FXCollections.observableArrayList(transactionManager.getAllTransactions());
-        table.setItems(data);
+        long generation = ++loadGeneration;
+        TransactionQuery query = buildQuery();
+
+        transactionManager.countTransactionsAsync(query)
+                .whenComplete((count, error) -> Platform.runLater(() -> {
+                    if (generation != loadGeneration) {
+                        return;
+                    }
+                    if (error != null) {
+                        error.printStackTrace();
+                        return;
+                    }
+                    table.setPlaceholder(new Label(query.hasFilters()
+                            ? "No transactions match the filters." : "No transactions yet."));
+                    data = new PagedTransactionList(transactionManager, query, count);
+                    table.setItems(data);
+                }));
+    }
+
+    private TransactionQuery buildQuery() {
+        return TransactionQuery.builder()
+                .matching(searchField.getText())
+                .between(fromPicker.getValue(), toPicker.getValue())
+                .category(categoryBox.getValue())
+                .type(typeBox.getValue())
+                .amountBetween(parseAmount(minAmountField), parseAmount(maxAmountField))
+                .sortBy(sortColumn, sortAscending)
+                .build();
+    }
+
+    // Blank or unparsable amounts leave that end of the range open
+    private static BigDecimal parseAmount(TextField field) {
+        String text = field.getText().trim();
+        if (text.isEmpty()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(text);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    // Reload only when the controls describe a different query than the one shown
+    private void applyFilters() {
+        if (!(data instanceof PagedTransactionList paged) || !paged.getQuery().equals(buildQuery())) {
+            refreshTable();
+        }
+    }
+
+    private void clearFilters() {
+        searchField.clear();
+        fromPicker.setValue(null);
+        toPicker.setValue(null);
+        categoryBox.setValue(null);
+        typeBox.setValue(null);
+        minAmountField.clear();
+        maxAmountField.clear();
+        typingDelay.stop();
+        applyFilters();
+    }
+
+    private void exportTransactions() {
+        FileChooser fileChooser = new FileChooser();
+        fileChooser.setTitle("Export Transactions");
+        fileChooser.getExtensionFilters().addAll(
+                new FileChooser.ExtensionFilter("CSV Files", "*.csv"),
+                new FileChooser.ExtensionFilter("JSON Files", "*.json"));
+        fileChooser.setInitialFileName("transactions.csv");
+        File file = fileChooser.showSaveDialog(table.getScene().getWindow());
+        if (file == null) {
+            return;
+        }
+
+        TransactionQuery query = buildQuery();
+        TransactionExporter.Format format = TransactionExporter.Format.forFile(file.toPath());
+        // Streams on a reader thread; report back on the FX thread
+        transactionManager.submitRead(() -> {
+            try {
+                return new TransactionExporter(transactionManager).export(query, file.toPath(), format);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }).whenComplete((count, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                Throwable cause = error.getCause() != null ? error.getCause() : error;
+                Alert alert = new Alert(Alert.AlertType.ERROR);
+                alert.setTitle("Error");
+                alert.setContentText("Error exporting transactions: " + cause.getMessage());
+                alert.showAndWait();
+                return;
+            }
+            Alert alert = new Alert(Alert.AlertType.INFORMATION);
+            alert.setTitle("Export Complete");
+            alert.setContentText(String.format("Exported %,d transactions.", count));
+            alert.showAndWait();
+        }));
+    }
+
+    // Occurrences carry their rule's id negated; removing the rule drops every occurrence
+    private void removeRule(Transaction occurrence) {
+        Alert alert = new Alert(Alert.AlertType.CONFIRMATION);
+        alert.setTitle("Remove Recurring Rule");
+        alert.setHeaderText("Remove Recurring Rule");
+        alert.setContentText("\"" + occurrence.getDescription() + "\" is a recurring transaction. "
+                + "Remove its rule and every occurrence, past and future?");
+        alert.showAndWait().ifPresent(response -> {
+            if (response != ButtonType.OK) {
+                return;
+            }
+            // The change event refreshes the table and summary
+            transactionManager.removeRecurringRuleAsync(-occurrence.getId())
+                    .whenComplete((removed, error) -> Platform.runLater(() -> {
+                        if (error != null) {
+                            Throwable cause = error.getCause() != null ? error.getCause() : error;
+                            Alert failed = new Alert(Alert.AlertType.ERROR);
+                            failed.setTitle("Error");
+                            failed.setContentText("Error removing recurring rule: " + cause.getMessage());
+                            failed.showAndWait();
+                        }
+                    }));
+        });
+    }
+
+    private void refreshCategories() {
+        transactionManager.getCategoriesAsync()
+                .whenComplete((categories, error) -> Platform.runLater(() -> {
+                    if (error != null) {
+                        error.printStackTrace();
+                        return;
+                    }
+                    if (!categoryBox.getItems().equals(categories)) {
+                        categoryBox.getItems().setAll(categories);
+                    }
+                }));
     }
 
     // Open the window in a new stage (window)
@@ -162,7 +416,7 @@ public class ViewTransactionsWindow implements TransactionListener {
         // Make table expand to fill available space
         VBox.setVgrow(table, Priority.ALWAYS);
 
-        layout.getChildren().addAll(summaryLayout, table);
+        layout.getChildren().addAll(summaryLayout, filterBar, table);
 
         // Create the scene
         Scene scene = new Scene(layout, 800, 600);
@@ -177,31 +431,21 @@ public class ViewTransactionsWindow implements TransactionListener {
         stage.show();
     }
 
+    // Read off the FX thread, as converting to another currency takes a scan
     private void updateFinancialSummary() {
-        BigDecimal income = BigDecimal.ZERO;
-        BigDecimal expenses = BigDecimal.ZERO;
-
-        // Loop through all transactions and sum income and expenses
-        for (Transaction transaction : transactionManager.getAllTransactions()) {
-            if (transaction.getType() == Transaction.TransactionType.INCOME) {
-                income = income.add(transaction.getAmount());
-            } else if (transaction.getType() == Transaction.TransactionType.EXPENSE) {
-                expenses = expenses.add(transaction.getAmount());
+        transactionManager.getFinancialSummaryAsync().whenComplete((summary, error) -> Platform.runLater(() -> {
+            if (error != null) {
+                error.printStackTrace();
+                return;
             }
-        }
-
-        // Calculate the balance
-        BigDecimal balance = income.subtract(expenses);
+            BigDecimal finalIncome = summary.getTotalIncome();
+            BigDecimal finalExpenses = summary.getTotalExpenses();
+            BigDecimal finalBalance = summary.getBalance();
 
-        // Use Platform.runLater to update the labels on the UI thread
-        final BigDecimal finalIncome = income;
-        final BigDecimal finalExpenses = expenses;
-        final BigDecimal finalBalance = balance;
-
-        Platform.runLater(() -> {
-            incomeLabel.setText(String.format("Income: $%,.2f", finalIncome));
-            expensesLabel.setText(String.format("Expenses: $%,.2f", finalExpenses));
-            balanceLabel.setText(String.format("Balance: $%,.2f", finalBalance));
+            String currency = transactionManager.getReportingCurrency();
+            incomeLabel.setText("Income: " + Money.format(finalIncome, currency));
+            expensesLabel.setText("Expenses: " + Money.format(finalExpenses, currency));
+            balanceLabel.setText("Balance: " + Money.format(finalBalance, currency));
 
             // Remove existing balance style classes
             balanceLabel.getStyleClass().removeAll("positive-balance", "negative-balance", "neutral-balance");
@@ -214,25 +458,22 @@ public class ViewTransactionsWindow implements TransactionListener {
             } else {
                 balanceLabel.getStyleClass().add("neutral-balance");
             }
-        });
+        }));
     }
 
     public TableView<Transaction> getTable() {
         return table;
     }
 
-    @Override
-    public void onTransactionAdded(Transaction transaction) {
-        Platform.runLater(() -> {
-            refreshTable();
-            updateFinancialSummary();
-        });
+    public HBox getFilterBar() {
+        return filterBar;
     }
 
     @Override
-    public void onTransactionRemoved(Transaction transaction) {
+    public void onTransactionsChanged(TransactionChangeSet changes) {
         Platform.runLater(() -> {
             refreshTable();
+            refreshCategories();
             updateFinancialSummary();
         });
     }
@@ -0,0 +1,95 @@
+package com.financetracker;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BudgetTrackerTest {
+    private static final LocalDate TODAY = LocalDate.of(2024, 3, 15);
+
+    private BudgetTracker tracker;
+
+    @BeforeEach
+    void load() {
+        tracker = new BudgetTracker();
+        assertEquals(List.of(), tracker.reset(TODAY, figures(10000, 5000)));
+    }
+
+    // A Food budget of limit cents with spent cents spent this month
+    private static Map<String, long[]> figures(long limit, long spent) {
+        Map<String, long[]> figures = new HashMap<>();
+        figures.put("Food", new long[] {limit, spent});
+        return figures;
+    }
+
+    private static Transaction expense(LocalDate date, String category) {
+        return new Transaction(date, "Lunch", BigDecimal.ONE, category, Transaction.TransactionType.EXPENSE);
+    }
+
+    private Integer apply(long cents, int sign) {
+        BudgetTracker.Alert alert = tracker.apply(expense(TODAY, "food"), cents, sign);
+        return alert == null ? null : alert.thresholdPercent();
+    }
+
+    @Test
+    void eachThresholdIsReportedOnceWhenCrossed() {
+        assertNull(apply(2999, 1));
+        assertEquals(80, apply(1, 1));
+        assertNull(apply(1000, 1));
+        assertEquals(100, apply(1000, 1));
+        assertNull(apply(5000, 1));
+        assertEquals(new BigDecimal("150.00"), tracker.getStatuses().get(0).getSpent());
+    }
+
+    @Test
+    void aThresholdIsReportedAgainAfterFallingBackUnderIt() {
+        assertEquals(100, apply(5000, 1));
+        assertNull(apply(100, -1));
+        assertEquals(100, apply(100, 1));
+    }
+
+    @Test
+    void otherMonthsCategoriesAndIncomeAreIgnored() {
+        assertNull(tracker.apply(expense(TODAY.minusMonths(1), "Food"), 9000, 1));
+        assertNull(tracker.apply(expense(TODAY, "Fun"), 9000, 1));
+        assertNull(tracker.apply(new Transaction(TODAY, "Refund", BigDecimal.ONE, "Food",
+                Transaction.TransactionType.INCOME), 9000, 1));
+        assertEquals(new BigDecimal("50.00"), tracker.getStatuses().get(0).getSpent());
+    }
+
+    @Test
+    void aReloadReportsOnlyNewThresholdsUnlessTheLimitChanged() {
+        List<BudgetTracker.Alert> alerts = tracker.reset(TODAY, figures(10000, 9000));
+        assertEquals(1, alerts.size());
+        assertEquals(80, alerts.get(0).thresholdPercent());
+        assertEquals(List.of(), tracker.reset(TODAY, figures(10000, 9000)));
+
+        alerts = tracker.reset(TODAY, figures(9000, 9000));
+        assertEquals(1, alerts.size());
+        assertEquals(100, alerts.get(0).thresholdPercent());
+    }
+
+    @Test
+    void aNewMonthStartsOver() {
+        assertEquals(80, apply(3000, 1));
+        List<BudgetTracker.Alert> alerts = tracker.reset(TODAY.plusMonths(1), figures(10000, 8000));
+        assertEquals(1, alerts.size());
+        assertEquals(80, alerts.get(0).thresholdPercent());
+    }
+
+    @Test
+    void aReloadRacingAnApplyIsRefused() {
+        long applied = tracker.getAppliedCount();
+        apply(100, 1);
+        assertNull(tracker.resetIfUnchanged(applied, TODAY, figures(10000, 5000)));
+        assertEquals(List.of(), tracker.resetIfUnchanged(tracker.getAppliedCount(), TODAY, figures(10000, 5100)));
+    }
+}
@@ -0,0 +1,89 @@
+package com.financetracker;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CsvTransactionImporterTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void quotedFieldsMaySpanLines() throws IOException {
+        Path csv = directory.resolve("in.csv");
+        Files.writeString(csv, "date,description,amount,category,type\n"
+                + "2024-01-02,\"Rent\nfor \"\"January\"\"\",900.00,Housing,EXPENSE\n"
+                + "2024-01-03,Coffee,3.50,Food,EXPENSE\n");
+
+        TransactionManager transactionManager = new TransactionManager(directory.resolve("db.sqlite").toString());
+        try {
+            assertEquals(2, new CsvTransactionImporter(transactionManager).importFile(csv));
+            assertEquals(List.of("Rent\nfor \"January\"", "Coffee"), descriptions(transactionManager));
+        } finally {
+            transactionManager.close();
+        }
+    }
+
+    @Test
+    void exportedLineBreaksImportBack() throws IOException {
+        Path csv = directory.resolve("out.csv");
+        TransactionManager source = new TransactionManager(directory.resolve("source.sqlite").toString());
+        try {
+            source.addTransaction(new Transaction(LocalDate.of(2024, 1, 2), "Two\nlines, one \"quote\"",
+                    new BigDecimal("12.00"), "Gifts", Transaction.TransactionType.EXPENSE));
+            new TransactionExporter(source).export(TransactionQuery.all(), csv, TransactionExporter.Format.CSV);
+        } finally {
+            source.close();
+        }
+
+        TransactionManager target = new TransactionManager(directory.resolve("target.sqlite").toString());
+        try {
+            assertEquals(1, new CsvTransactionImporter(target).importFile(csv));
+            assertEquals(List.of("Two\nlines, one \"quote\""), descriptions(target));
+        } finally {
+            target.close();
+        }
+    }
+
+    @Test
+    void aCurrencyWithoutRatesIsRejectedWithItsLine() throws IOException {
+        Path csv = directory.resolve("in.csv");
+        Files.writeString(csv, "2024-01-02,Rent,900.00,Housing,EXPENSE,Main,USD\n"
+                + "2024-01-03,Hotel,120.00,Travel,EXPENSE,Main,EUR\n");
+
+        TransactionManager transactionManager = new TransactionManager(directory.resolve("db.sqlite").toString());
+        try {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> new CsvTransactionImporter(transactionManager).importFile(csv));
+            assertEquals("Line 2: no exchange rates for EUR; import them first", e.getMessage());
+            assertEquals(List.of(), descriptions(transactionManager));
+
+            // Adding a single row fails the same way, whether called directly or not
+            Transaction hotel = new Transaction(LocalDate.of(2024, 1, 3), "Hotel", new BigDecimal("120.00"),
+                    "Travel", Transaction.TransactionType.EXPENSE, "Main", "EUR");
+            assertThrows(IllegalArgumentException.class, () -> transactionManager.addTransaction(hotel));
+            assertEquals(IllegalArgumentException.class,
+                    assertThrows(ExecutionException.class, () -> transactionManager.addTransactionAsync(hotel).get()).getCause().getClass());
+            assertEquals(0, transactionManager.getTransactionCount());
+        } finally {
+            transactionManager.close();
+        }
+    }
+
+    private static List<String> descriptions(TransactionManager transactionManager) {
+        return transactionManager.getAllTransactions().stream()
+                .sorted((a, b) -> Integer.compare(a.getId(), b.getId()))
+                .map(Transaction::getDescription)
+                .toList();
+    }
+}
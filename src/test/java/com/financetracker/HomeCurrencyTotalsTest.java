@@ -0,0 +1,72 @@
+package com.financetracker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Rows in other currencies count in the totals, rollups and budgets at their day's rate
+class HomeCurrencyTotalsTest {
+    private static final LocalDate TODAY = LocalDate.now();
+
+    @TempDir
+    Path directory;
+
+    private TransactionManager transactionManager;
+
+    @BeforeEach
+    void open() {
+        transactionManager = new TransactionManager(directory.resolve("db.sqlite").toString());
+        transactionManager.importFxRates(List.of(new FxRateTable.Rate(TODAY.minusDays(1), "EUR", 2.0)).iterator());
+        transactionManager.setBudget("Food", new BigDecimal("100.00"));
+        transactionManager.addTransaction(new Transaction(TODAY, "Lunch", new BigDecimal("10.00"), "Food",
+                Transaction.TransactionType.EXPENSE, Transaction.DEFAULT_ACCOUNT, "EUR"));
+        transactionManager.addTransaction(new Transaction(TODAY, "Snack", new BigDecimal("5.00"), "Food",
+                Transaction.TransactionType.EXPENSE));
+    }
+
+    @AfterEach
+    void close() {
+        transactionManager.close();
+    }
+
+    private void assertSpent(String expected) {
+        assertEquals(new BigDecimal(expected), transactionManager.getFinancialSummary().getTotalExpenses());
+        assertEquals(new BigDecimal(expected), transactionManager.getCategoryTotals(Transaction.TransactionType.EXPENSE).get("Food"));
+        assertEquals(new BigDecimal(expected), transactionManager.getMonthlyTotals()
+                .get(Transaction.TransactionType.EXPENSE).get(TODAY.getMonthValue()));
+        BudgetStatus budget = transactionManager.getBudgetStatuses().get(0);
+        assertEquals(YearMonth.from(TODAY), budget.getPeriod());
+        assertEquals(new BigDecimal(expected), budget.getSpent());
+    }
+
+    @Test
+    void foreignRowsAreSummedInTheHomeCurrency() {
+        assertSpent("25.00");
+    }
+
+    @Test
+    void newRatesRepriceStoredRows() {
+        transactionManager.importFxRates(List.of(new FxRateTable.Rate(TODAY, "EUR", 3.0)).iterator());
+        assertSpent("35.00");
+
+        transactionManager.removeTransaction(transactionManager.getAllTransactions().stream()
+                .filter(t -> t.getCurrency().equals("EUR")).findFirst().orElseThrow().getId());
+        assertSpent("5.00");
+    }
+
+    @Test
+    void totalsSurviveReopening() {
+        transactionManager.close();
+        transactionManager = new TransactionManager(directory.resolve("db.sqlite").toString());
+        assertSpent("25.00");
+    }
+}
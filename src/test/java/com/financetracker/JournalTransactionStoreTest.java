@@ -0,0 +1,73 @@
+package com.financetracker;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JournalTransactionStoreTest extends TransactionStoreContractTest {
+
+    private static Path file(Path directory) {
+        return directory.resolve("finance_tracker.journal");
+    }
+
+    @Override
+    TransactionStore open(Path directory) {
+        return new JournalTransactionStore(file(directory));
+    }
+
+    // Zeroes the second half of the last record, as if the crash came between two pages
+    @Override
+    void tearLastWrite(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(file(directory), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long last = lastRecordOffset(channel);
+            int half = JournalTransactionStore.RECORD_SIZE / 2;
+            channel.write(ByteBuffer.allocate(half), last + half);
+        }
+    }
+
+    private static long lastRecordOffset(FileChannel channel) throws IOException {
+        ByteBuffer kind = ByteBuffer.allocate(1);
+        long last = -1;
+        for (long offset = JournalTransactionStore.HEADER_SIZE; offset < channel.size(); offset += JournalTransactionStore.RECORD_SIZE) {
+            kind.clear();
+            channel.read(kind, offset);
+            if (kind.get(0) == 0) {
+                break;
+            }
+            last = offset;
+        }
+        return last;
+    }
+
+    @Test
+    void recordsPastATornOneStayDead() throws IOException {
+        int first;
+        try (TransactionStore store = open(directory)) {
+            first = store.add(row(1, "a", "1.00"));
+            store.add(row(2, "b", "2.00"));
+        }
+        // Leave an intact copy of the last record right after it, then tear the original
+        try (FileChannel channel = FileChannel.open(file(directory), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long last = lastRecordOffset(channel);
+            ByteBuffer record = ByteBuffer.allocate(JournalTransactionStore.RECORD_SIZE);
+            channel.read(record, last);
+            channel.write(record.flip(), last + JournalTransactionStore.RECORD_SIZE);
+            channel.write(ByteBuffer.allocate(1), last + JournalTransactionStore.RECORD_SIZE - 1);
+        }
+
+        int added;
+        try (TransactionStore store = open(directory)) {
+            added = store.add(row(3, "c", "3.00"));
+        }
+        try (TransactionStore store = open(directory)) {
+            assertEquals(List.of(first + " 2024-01-01 a 100 Food EXPENSE", added + " 2024-01-03 c 300 Food EXPENSE"), rows(store));
+        }
+    }
+}
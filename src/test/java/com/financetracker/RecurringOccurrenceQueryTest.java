@@ -0,0 +1,125 @@
+package com.financetracker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Recurring occurrences show up in queries, paging and exports as if they were rows
+class RecurringOccurrenceQueryTest {
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @TempDir
+    Path directory;
+
+    private TransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        transactionManager = new TransactionManager(directory.resolve("db.sqlite").toString());
+        for (int day = 0; day < 60; day += 3) {
+            transactionManager.addTransaction(new Transaction(START.plusDays(day), "Coffee " + day,
+                    new BigDecimal(day % 7 + ".50"), day % 2 == 0 ? "Food" : "Fun", Transaction.TransactionType.EXPENSE));
+        }
+        transactionManager.addRecurringRule(new RecurringRule("Rent", new BigDecimal("900.00"), "Housing",
+                Transaction.TransactionType.EXPENSE, RecurringRule.Unit.MONTH, 1, START, null));
+        transactionManager.addRecurringRule(new RecurringRule("Gym", new BigDecimal("3.50"), "Fun",
+                Transaction.TransactionType.EXPENSE, RecurringRule.Unit.WEEK, 1, START.plusDays(2), START.plusDays(50)));
+    }
+
+    @AfterEach
+    void close() {
+        transactionManager.close();
+    }
+
+    // Every stored row and occurrence the query should see, sorted the slow way
+    private List<Transaction> expected(TransactionQuery query) {
+        List<Transaction> all = new ArrayList<>();
+        transactionManager.forEachTransaction(query, all::add);
+        LocalDate to = query.getTo() != null ? query.getTo() : LocalDate.now();
+        for (RecurringRule rule : transactionManager.getRecurringRules()) {
+            rule.forEachOccurrence(query.getFrom() != null ? query.getFrom() : rule.getStart(), to, date -> {
+                Transaction occurrence = rule.occurrenceOn(date);
+                if (query.matches(occurrence)) {
+                    all.add(occurrence);
+                }
+            });
+        }
+        all.sort(query.comparator());
+        return all;
+    }
+
+    private static List<String> keys(List<Transaction> transactions) {
+        List<String> keys = new ArrayList<>();
+        for (Transaction transaction : transactions) {
+            keys.add(transaction.getId() + "@" + transaction.getDate());
+        }
+        return keys;
+    }
+
+    private void assertQuery(TransactionQuery query) {
+        List<Transaction> expected = expected(query);
+        assertEquals(expected.size(), transactionManager.countTransactions(query));
+
+        // Page through it in small pages, seeking from the last row each time
+        List<Transaction> paged = new ArrayList<>();
+        Transaction after = null;
+        List<Transaction> page;
+        while (!(page = transactionManager.findTransactions(query, after, 7)).isEmpty()) {
+            paged.addAll(page);
+            after = page.get(page.size() - 1);
+        }
+        assertEquals(keys(expected), keys(paged));
+
+        for (int position = 0; position < expected.size(); position++) {
+            assertEquals(keys(expected.subList(position, position + 1)),
+                    keys(List.of(transactionManager.findTransactionAt(query, position))), "position " + position);
+        }
+        assertEquals(null, transactionManager.findTransactionAt(query, expected.size()));
+    }
+
+    @Test
+    void occurrencesAreMergedInEverySortOrder() {
+        for (TransactionQuery.SortColumn column : TransactionQuery.SortColumn.values()) {
+            for (boolean ascending : new boolean[] {true, false}) {
+                assertQuery(TransactionQuery.builder().sortBy(column, ascending).build());
+            }
+        }
+    }
+
+    @Test
+    void occurrencesAreFiltered() {
+        assertQuery(TransactionQuery.builder().between(START.plusDays(10), START.plusDays(40)).build());
+        assertQuery(TransactionQuery.builder().between(null, START.plusMonths(14)).build());
+        assertQuery(TransactionQuery.builder().category("fun").sortBy(TransactionQuery.SortColumn.AMOUNT, true).build());
+        assertQuery(TransactionQuery.builder().amountBetween(new BigDecimal("3.50"), new BigDecimal("3.50")).build());
+        assertQuery(TransactionQuery.builder().matching("gy").build());
+        assertQuery(TransactionQuery.builder().matching("housing rent").build());
+    }
+
+    @Test
+    void exportMergesOccurrencesByDate() throws IOException {
+        TransactionQuery query = TransactionQuery.builder().between(START, START.plusDays(20)).build();
+        Path csv = directory.resolve("out.csv");
+        int written = new TransactionExporter(transactionManager).export(query, csv, TransactionExporter.Format.CSV);
+
+        List<String> lines = Files.readAllLines(csv);
+        List<Transaction> expected = expected(query.withSort(TransactionQuery.SortColumn.DATE, true));
+        assertEquals(expected.size(), written);
+        assertEquals(expected.size() + 1, lines.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getDate() + "," + expected.get(i).getDescription(),
+                    lines.get(i + 1).substring(0, lines.get(i + 1).indexOf(',', 11)));
+        }
+    }
+}
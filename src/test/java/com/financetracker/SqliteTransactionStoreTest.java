@@ -0,0 +1,31 @@
+package com.financetracker;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+class SqliteTransactionStoreTest extends TransactionStoreContractTest {
+
+    @Override
+    TransactionStore open(Path directory) {
+        return new SqliteTransactionStore(directory.resolve("finance_tracker.sqlite").toString());
+    }
+
+    // Leaves a half-written WAL behind, as a crash while appending the last commit would
+    @Override
+    void tearLastWrite(Path directory) throws IOException {
+        byte[] frame = new byte[4096 + 24 + 32];
+        new Random(42).nextBytes(frame);
+        Files.write(directory.resolve("finance_tracker.sqlite-wal"), frame);
+    }
+
+    // Rows are only stored in currencies there are exchange rates for
+    @Override
+    void allowCurrency(TransactionStore store, String currency) {
+        ((SqliteTransactionStore) store).getTransactionManager()
+                .importFxRates(List.of(new FxRateTable.Rate(LocalDate.of(2024, 1, 1), currency, 1.1)).iterator());
+    }
+}
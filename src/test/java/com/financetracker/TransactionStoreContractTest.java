@@ -0,0 +1,216 @@
+package com.financetracker;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// The TransactionStore contract, run against every backend by a subclass each
+abstract class TransactionStoreContractTest {
+    @TempDir
+    Path directory;
+
+    private TransactionStore current;
+
+    // Opens the store kept in directory, creating it on first use
+    abstract TransactionStore open(Path directory);
+
+    // Damages the last write in the closed store as a crash in the middle of it would
+    abstract void tearLastWrite(Path directory) throws IOException;
+
+    // Makes the store accept rows in the currency; stores that need no rates ignore it
+    void allowCurrency(TransactionStore store, String currency) {
+    }
+
+    @AfterEach
+    void closeStore() {
+        if (current != null) {
+            current.close();
+        }
+    }
+
+    // Closes the open store, if any, and opens it again
+    private TransactionStore reopen() {
+        closeStore();
+        current = open(directory);
+        return current;
+    }
+
+    static Transaction row(int day, String description, String amount) {
+        return new Transaction(LocalDate.of(2024, 1, day), description, new BigDecimal(amount),
+                "Food", Transaction.TransactionType.EXPENSE);
+    }
+
+    // Each live row as id, date, description, cents, category and type, oldest first
+    static List<String> rows(TransactionStore store) {
+        List<String> rows = new ArrayList<>();
+        store.forEach(t -> rows.add(t.getId() + " " + t.getDate() + " " + t.getDescription() + " "
+                + Money.toCents(t.getAmount()) + " " + t.getCategory() + " " + t.getType()));
+        return rows;
+    }
+
+    @Test
+    void addReturnsIdsThatForEachVisitsInOrder() {
+        TransactionStore store = reopen();
+        int first = store.add(row(3, "Groceries", "42.10"));
+        int second = store.add(row(1, "Coffee", "3.50"));
+
+        assertTrue(second > first);
+        assertEquals(2, store.count());
+        assertEquals(List.of(
+                first + " 2024-01-03 Groceries 4210 Food EXPENSE",
+                second + " 2024-01-01 Coffee 350 Food EXPENSE"), rows(store));
+    }
+
+    @Test
+    void addAllReturnsHowManyWereStored() {
+        TransactionStore store = reopen();
+        int added = store.addAll(List.of(row(1, "a", "1.00"), row(2, "b", "2.00"), row(3, "c", "3.00")).iterator());
+
+        assertEquals(3, added);
+        assertEquals(3, store.count());
+    }
+
+    @Test
+    void idsOnlyGrowAfterRemovingTheNewestRow() {
+        TransactionStore store = reopen();
+        store.add(row(1, "a", "1.00"));
+        int newest = store.add(row(2, "b", "2.00"));
+        assertTrue(store.remove(newest));
+
+        assertTrue(store.add(row(3, "c", "3.00")) > newest);
+    }
+
+    @Test
+    void idsOnlyGrowAcrossCompactionAndReopening() {
+        TransactionStore store = reopen();
+        store.add(row(1, "a", "1.00"));
+        int newest = store.add(row(2, "b", "2.00"));
+        store.remove(newest);
+        store.compact();
+        store = reopen();
+
+        assertTrue(store.add(row(3, "c", "3.00")) > newest);
+    }
+
+    @Test
+    void removeTakesEachRowOutOnce() {
+        TransactionStore store = reopen();
+        int kept = store.add(row(1, "a", "1.00"));
+        int removed = store.add(row(2, "b", "2.00"));
+
+        assertTrue(store.remove(removed));
+        assertFalse(store.remove(removed));
+        assertEquals(1, store.count());
+        assertEquals(List.of(kept + " 2024-01-01 a 100 Food EXPENSE"), rows(store));
+    }
+
+    @Test
+    void removeRejectsUnknownIds() {
+        TransactionStore store = reopen();
+        int id = store.add(row(1, "a", "1.00"));
+
+        assertFalse(store.remove(id + 1000));
+        assertFalse(store.remove(-1));
+        assertEquals(1, store.count());
+    }
+
+    @Test
+    void reopenKeepsRowsAndRemovals() {
+        TransactionStore store = reopen();
+        store.add(row(1, "a", "1.00"));
+        int removed = store.add(row(2, "b", "2.00"));
+        store.add(row(3, "c", "-3.25"));
+        store.remove(removed);
+        List<String> before = rows(store);
+
+        store = reopen();
+        assertEquals(before, rows(store));
+        assertEquals(2, store.count());
+        assertFalse(store.remove(removed));
+    }
+
+    @Test
+    void compactionKeepsLiveRowsAndIds() {
+        TransactionStore store = reopen();
+        List<Integer> ids = new ArrayList<>();
+        for (int day = 1; day <= 20; day++) {
+            ids.add(store.add(row(day, "row " + day, day + ".00")));
+        }
+        for (int i = 0; i < ids.size(); i += 2) {
+            store.remove(ids.get(i));
+        }
+        List<String> before = rows(store);
+
+        store.compact();
+        assertEquals(before, rows(store));
+        assertEquals(10, store.count());
+
+        store = reopen();
+        assertEquals(before, rows(store));
+        assertFalse(store.remove(ids.get(0)));
+    }
+
+    @Test
+    void tornLastWriteIsAllOrNothing() throws IOException {
+        TransactionStore store = reopen();
+        int first = store.add(row(1, "a", "1.00"));
+        int second = store.add(row(2, "b", "2.00"));
+        int last = store.add(row(3, "c", "3.00"));
+        closeStore();
+        current = null;
+        tearLastWrite(directory);
+
+        store = reopen();
+        List<String> rows = rows(store);
+        List<String> kept = List.of(first + " 2024-01-01 a 100 Food EXPENSE", second + " 2024-01-02 b 200 Food EXPENSE");
+        String lastRow = last + " 2024-01-03 c 300 Food EXPENSE";
+        assertTrue(rows.equals(kept) || rows.equals(append(kept, lastRow)), rows.toString());
+
+        // The store stays writable, and what is written now is all that comes back with it
+        int next = store.add(row(4, "d", "4.00"));
+        assertTrue(next > second);
+        List<String> expected = append(rows, next + " 2024-01-04 d 400 Food EXPENSE");
+        store = reopen();
+        assertEquals(expected, rows(store));
+    }
+
+    @Test
+    void accountAndCurrencySurviveReopeningAndCompaction() {
+        TransactionStore store = reopen();
+        allowCurrency(store, "EUR");
+        int id = store.add(new Transaction(LocalDate.of(2024, 1, 5), "Hotel", new BigDecimal("120.00"),
+                "Travel", Transaction.TransactionType.EXPENSE, "Savings", "EUR"));
+        store.add(row(6, "a", "1.00"));
+        List<String> expected = List.of(id + " Savings EUR", (id + 1) + " " + Transaction.DEFAULT_ACCOUNT + " "
+                + Transaction.HOME_CURRENCY);
+        assertEquals(expected, accounts(store));
+
+        store = reopen();
+        assertEquals(expected, accounts(store));
+        store.compact();
+        assertEquals(expected, accounts(store));
+    }
+
+    private static List<String> accounts(TransactionStore store) {
+        List<String> accounts = new ArrayList<>();
+        store.forEach(t -> accounts.add(t.getId() + " " + t.getAccount() + " " + t.getCurrency()));
+        return accounts;
+    }
+
+    private static List<String> append(List<String> rows, String row) {
+        List<String> appended = new ArrayList<>(rows);
+        appended.add(row);
+        return appended;
+    }
+}